@@ -0,0 +1,58 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.InternshipApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Porneste aplicatia (fara server web) pe o baza H2 in memorie separata pentru fiecare benchmark
+ * si o populeaza direct prin SQL, ca pregatirea datelor sa nu intre in masuratori.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraProperties) {
+        return start(WebApplicationType.NONE, extraProperties);
+    }
+
+    // cu SERVLET sau REACTIVE porneste si serverul web (Tomcat, respectiv Netty), pe un port liber
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... extraProperties) {
+        String database = "bench-" + UUID.randomUUID();
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "items.reactive.r2dbc-url=r2dbc:h2:mem:///" + database,
+                "server.port=0",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN"));
+        properties.addAll(List.of(extraProperties));
+
+        // ca argumente din linia de comanda: properties() seteaza doar valori implicite, pe care
+        // application.properties le suprascrie (de exemplu url-ul bazei de date)
+        return new SpringApplicationBuilder(InternshipApplication.class)
+                .web(webApplicationType)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    // inlocuieste continutul tabelei cu itemCount item-e neprocesate, cu id-urile 1..itemCount
+    static void seedItems(ConfigurableApplicationContext context, int itemCount) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("DELETE FROM item");
+        jdbc.update("INSERT INTO item (id, name, description, status, email, version) " +
+                "SELECT X, CONCAT('item', X), 'benchmark item', 'NEPROCESAT', 'bench@mail.com', 0 FROM SYSTEM_RANGE(1, ?)", itemCount);
+
+        // secventa trebuie sa treaca de id-urile inserate manual (Hibernate aloca blocuri de cate 50)
+        jdbc.execute("ALTER SEQUENCE item_seq RESTART WITH " + (itemCount + 100));
+    }
+
+    static void resetStatuses(ConfigurableApplicationContext context) {
+        context.getBean(JdbcTemplate.class).update("UPDATE item SET status = 'NEPROCESAT'");
+    }
+}
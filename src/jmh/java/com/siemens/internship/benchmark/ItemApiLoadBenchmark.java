@@ -0,0 +1,92 @@
+package com.siemens.internship.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test de incarcare HTTP pentru /api/items, pe stack-ul MVC (Tomcat + JPA) si pe cel reactiv (Netty + R2DBC).
+ * Fiecare thread JMH este un client care trimite cereri una dupa alta, deci numarul de thread-uri (-t) este
+ * concurenta. Throughput da cererile pe secunda, SampleTime distributia latentei (p0.99, p0.999).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(64)
+// cache-ul de conexiuni keep-alive al JDK pastreaza implicit doar 5 conexiuni pe destinatie
+@Fork(value = 1, jvmArgsAppend = "-Dhttp.maxConnections=256")
+public class ItemApiLoadBenchmark {
+
+    private static final int ITEM_COUNT = 10_000;
+
+    @Param({"mvc", "reactive"})
+    private String stack;
+
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Tomcat inchide implicit conexiunea dupa 100 de cereri, Netty nu; asa ambele pastreaza conexiunile deschise
+        context = "reactive".equals(stack)
+                ? BenchmarkApplication.start(WebApplicationType.REACTIVE, "spring.profiles.active=reactive")
+                : BenchmarkApplication.start(WebApplicationType.SERVLET, "server.tomcat.max-keep-alive-requests=-1");
+        BenchmarkApplication.seedItems(context, ITEM_COUNT);
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/items";
+    }
+
+    @Benchmark
+    public int getItemById() throws IOException {
+        return get("/" + ThreadLocalRandom.current().nextLong(1, ITEM_COUNT + 1));
+    }
+
+    // o pagina de 100 de item-e de la o pozitie aleatoare
+    @Benchmark
+    public int getItemPage() throws IOException {
+        return get("?limit=100&after=" + ThreadLocalRandom.current().nextLong(0, ITEM_COUNT - 100));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // conexiunea ramane deschisa pentru cererea urmatoare (keep-alive) dupa ce raspunsul este citit complet;
+    // timeout-urile sunt mari ca blocajele rare sa apara in p0.9999 si nu sa opreasca iteratia (vezi BENCHMARKS.md)
+    private int get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create(baseUrl + path).toURL().openConnection();
+        connection.setConnectTimeout(60_000);
+        connection.setReadTimeout(60_000);
+        if (connection.getResponseCode() != 200) {
+            throw new IllegalStateException("GET " + path + " returned " + connection.getResponseCode());
+        }
+        try (InputStream body = connection.getInputStream()) {
+            return body.readAllBytes().length;
+        }
+    }
+}
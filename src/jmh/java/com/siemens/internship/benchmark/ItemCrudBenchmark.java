@@ -0,0 +1,88 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput pentru operatiile CRUD folosite de ItemController: citire dupa id (prin serviciu, cu cache,
+ * si direct prin repository), salvare individuala si salvare bulk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ItemCrudBenchmark {
+
+    private static final int ITEM_COUNT = 10_000;
+    private static final int BULK_SIZE = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private ItemRepository itemRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        itemService = context.getBean(ItemService.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        BenchmarkApplication.seedItems(context, ITEM_COUNT);
+    }
+
+    @Benchmark
+    public Optional<Item> findByIdService() {
+        return itemService.findById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Item> findByIdRepository() {
+        return itemRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public Item save() {
+        return itemService.save(new Item(null, "item", "benchmark item", Item.STATUS_NEPROCESAT, "bench@mail.com"));
+    }
+
+    // acelasi numar de item-e scrise printr-un singur apel saveAll; scorul este raportat per item, comparabil cu save()
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public List<Item> saveBulk() {
+        List<Item> items = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            items.add(new Item(null, "item", "benchmark item", Item.STATUS_NEPROCESAT, "bench@mail.com"));
+        }
+        return itemService.saveAll(items);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, ITEM_COUNT + 1);
+    }
+}
@@ -0,0 +1,105 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ItemWriteBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durata unei procesari complete (processItemsAsync vs. varianta pe loturi) pentru tabele de diferite dimensiuni.
+ * Fiecare iteratie porneste de la toate item-ele NEPROCESAT.
+ * Cu -p profile=default,perf se compara si profilul "perf" (pool de conexiuni si executor dimensionate impreuna);
+ * la final se afiseaza cat au asteptat task-urile dupa o conexiune din pool (hikaricp.connections.acquire).
+ * Cu -p writeBehind=off,sync,async, mode=single scrie rezultatele prin ItemWriteBuffer cu durabilitatea data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemProcessingBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int itemCount;
+
+    @Param({"single", "batch"})
+    private String mode;
+
+    @Param({"default"})
+    private String profile;
+
+    @Param({"off"})
+    private String writeBehind;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> properties = new ArrayList<>();
+        if ("perf".equals(profile)) {
+            properties.add("spring.profiles.active=perf");
+        }
+        if (!"off".equals(writeBehind)) {
+            properties.add("items.processing.write-behind.enabled=true");
+            properties.add("items.processing.write-behind.durability=" + writeBehind);
+        }
+        context = BenchmarkApplication.start(properties.toArray(new String[0]));
+        itemService = context.getBean(ItemService.class);
+        BenchmarkApplication.seedItems(context, itemCount);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStatuses() {
+        BenchmarkApplication.resetStatuses(context);
+    }
+
+    @Benchmark
+    public List<Item> processItems() {
+        if ("batch".equals(mode)) {
+            return itemService.processItemsInBatchesAsync().join();
+        }
+        return itemService.processItemsAsync().join();
+    }
+
+    // cu durabilitatea ASYNC, future-ul se termina inainte de scriere; iteratia urmatoare reseteaza statusurile,
+    // deci se asteapta golirea bufferului ca scrierile ramase sa nu se amestece cu ea
+    @TearDown(Level.Iteration)
+    public void drainWriteBuffer() throws InterruptedException {
+        ItemWriteBuffer buffer = context.getBean(ItemWriteBuffer.class);
+        while (buffer.size() > 0) {
+            Thread.sleep(10);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Timer acquire = context.getBean(MeterRegistry.class).find("hikaricp.connections.acquire").timer();
+        if (acquire != null) {
+            System.out.printf("%npool wait: %d acquisitions, total %.0f ms, mean %.3f ms, max %.1f ms%n", acquire.count(),
+                    acquire.totalTime(TimeUnit.MILLISECONDS), acquire.mean(TimeUnit.MILLISECONDS),
+                    acquire.max(TimeUnit.MILLISECONDS));
+        }
+        context.close();
+    }
+}
@@ -0,0 +1,106 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemFilter;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selectia item-elor care mai trebuie procesate: interogarea filtrata pe indexul (status, id)
+ * comparata cu citirea tuturor item-elor si filtrarea lor in memorie (calea veche a pipeline-ului).
+ * Doar 1% din item-e sunt NEPROCESAT, ca intr-o rulare repetata.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ItemQueryBenchmark {
+
+    private static final int PAGE_SIZE = 500;
+
+    @Param({"100000"})
+    public int itemCount;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private ItemRepository itemRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        itemService = context.getBean(ItemService.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        BenchmarkApplication.seedItems(context, itemCount);
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("UPDATE item SET status = 'PROCESSED' WHERE MOD(id, 100) <> 0");
+        jdbc.update("UPDATE item SET email = CONCAT('user', id, '@mail.com')");
+    }
+
+    // id-urile neprocesate, pe pagini, cum le citeste ItemBatchProcessor
+    @Benchmark
+    public int pendingIdsIndexed() {
+        int count = 0;
+        long after = 0;
+        List<Long> ids;
+        while (!(ids = itemRepository.findIdsByStatusAfter(Item.STATUS_NEPROCESAT, after, PageRequest.of(0, PAGE_SIZE))).isEmpty()) {
+            count += ids.size();
+            after = ids.get(ids.size() - 1);
+        }
+        return count;
+    }
+
+    // toate id-urile, pe pagini, urmate de citirea fiecarui lot ca sa se afle statusul
+    @Benchmark
+    public int pendingIdsFullScan() {
+        int count = 0;
+        long after = 0;
+        List<Long> ids;
+        while (!(ids = itemRepository.findIdsAfter(after, PageRequest.of(0, PAGE_SIZE))).isEmpty()) {
+            count += (int) itemRepository.findAllById(ids).stream()
+                    .filter(item -> Item.STATUS_NEPROCESAT.equals(item.getStatus()))
+                    .count();
+            after = ids.get(ids.size() - 1);
+        }
+        return count;
+    }
+
+    @Benchmark
+    public List<Item> findByEmailIndexed() {
+        return itemService.findPage(new ItemFilter(null, "user" + (itemCount / 2) + "@mail.com"), 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Item> findByEmailFullScan() {
+        String email = "user" + (itemCount / 2) + "@mail.com";
+        return itemRepository.findAll().stream()
+                .filter(item -> email.equals(item.getEmail()))
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
@@ -0,0 +1,109 @@
+package com.siemens.internship.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.siemens.internship.controller.ItemView;
+import com.siemens.internship.model.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Costul serializarii listelor de item-e, asa cum le scrie controller-ul.
+ * serializeItemList este varianta initiala (entitatea Item prin introspectie Jackson); celelalte variante
+ * folosesc ItemView si formatele alese prin Accept. Dimensiunea fiecarui format este afisata la setUp.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ItemSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int listSize;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper blackbirdMapper;
+    private ObjectMapper smileMapper;
+    private ObjectMapper cborMapper;
+    private List<Item> items;
+    private List<ItemView> views;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // aceleasi builder-e pe care le folosesc Spring Boot si Spring MVC pentru convertoarele de mesaje
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        blackbirdMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+        smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+        cborMapper = Jackson2ObjectMapperBuilder.cbor().build();
+
+        items = new ArrayList<>(listSize);
+        for (long id = 1; id <= listSize; id++) {
+            Item item = new Item(id, "item" + id, "benchmark item", Item.STATUS_PROCESSED, "bench@mail.com");
+            item.setVersion(1L);
+            items.add(item);
+        }
+        views = ItemView.of(items);
+
+        System.out.printf("%nbytes for %d items: json=%d gzip=%d smile=%d cbor=%d%n", listSize,
+                serializeItemViewList().length, serializeItemViewListGzip().length,
+                serializeItemViewListSmile().length, serializeItemViewListCbor().length);
+    }
+
+    @Benchmark
+    public byte[] serializeItemList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(items);
+    }
+
+    @Benchmark
+    public byte[] serializeItemListBlackbird() throws JsonProcessingException {
+        return blackbirdMapper.writeValueAsBytes(items);
+    }
+
+    // include copierea din entitati, pe care controller-ul o face pentru fiecare raspuns
+    @Benchmark
+    public byte[] serializeItemViewList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ItemView.of(items));
+
+    }
+
+    @Benchmark
+    public byte[] serializeItemViewListSmile() throws JsonProcessingException {
+        return smileMapper.writeValueAsBytes(views);
+    }
+
+    @Benchmark
+    public byte[] serializeItemViewListCbor() throws JsonProcessingException {
+        return cborMapper.writeValueAsBytes(views);
+    }
+
+    // JSON comprimat cu nivelul implicit, ca la server.compression
+    @Benchmark
+    public byte[] serializeItemViewListGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, views);
+        }
+        return bytes.toByteArray();
+    }
+}
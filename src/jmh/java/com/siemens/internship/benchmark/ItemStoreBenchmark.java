@@ -0,0 +1,134 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.CompactItemStore;
+import com.siemens.internship.repository.ItemFilter;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Citiri dupa id si pe pagini prin JPA (ItemRepository) si prin store-ul compact (ItemService cu profilul "edge").
+ * Setup-ul afiseaza si memoria ocupata de toate item-ele ca entitati pe heap fata de store, plus durata
+ * incarcarii store-ului din baza de date si din snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ItemStoreBenchmark {
+
+    private static final int ITEM_COUNT = 100_000;
+    private static final int PAGE_SIZE = 100;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private ItemRepository itemRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.start("spring.profiles.active=edge", "items.store.compact.snapshot-path=");
+        itemService = context.getBean(ItemService.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        BenchmarkApplication.seedItems(context, ITEM_COUNT);
+
+        // store-ul a pornit gol si preia item-ele inserate la urmatorul refresh
+        MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+        while (meterRegistry.get("items.store.size").gauge().value() < ITEM_COUNT) {
+            Thread.sleep(50);
+        }
+
+        printFootprint();
+    }
+
+    @Benchmark
+    public Optional<Item> findByIdJpa() {
+        return itemRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Item> findByIdCompact() {
+        return itemService.findById(randomId());
+    }
+
+    @Benchmark
+    public List<Item> findPageJpa() {
+        return itemRepository.findPage(ItemFilter.NONE, randomId() - 1, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Item> findPageCompact() {
+        return itemService.findPage(ItemFilter.NONE, randomId() - 1, PAGE_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private void printFootprint() throws Exception {
+        long before = usedHeap();
+        List<Item> entities = itemRepository.findAll();
+        long entityBytes = usedHeap() - before;
+
+        long start = System.nanoTime();
+        CompactItemStore store = new CompactItemStore(true, ITEM_COUNT);
+        List<Item> changes;
+        do {
+            changes = itemRepository.findChangesAfter(store.getLastChangeSeq(), PageRequest.of(0, 1000));
+            changes.forEach(store::put);
+            if (!changes.isEmpty()) {
+                store.advanceChangeSeq(changes.get(changes.size() - 1).getChangeSeq());
+            }
+        } while (!changes.isEmpty());
+        long databaseLoadMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Path snapshot = Files.createTempFile("items", ".snapshot");
+        store.writeSnapshot(snapshot);
+        start = System.nanoTime();
+        CompactItemStore restored = CompactItemStore.readSnapshot(snapshot, true);
+        long snapshotLoadMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        System.out.printf("%n%d items: %d KB as JPA entities on heap, %d KB in the compact store (off-heap)%n",
+                entities.size(), entityBytes / 1024, store.memoryBytes() / 1024);
+        System.out.printf("store load: %d ms from the database, %d ms from a %d KB snapshot (%d items)%n",
+                databaseLoadMs, snapshotLoadMs, Files.size(snapshot) / 1024, restored.size());
+        Files.delete(snapshot);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, ITEM_COUNT + 1);
+    }
+}
@@ -0,0 +1,122 @@
+package com.siemens.internship.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timpul de la lansarea JVM-ului pana la primul raspuns 200 pe GET /api/items, pentru fiecare mod de pornire.
+ * Aplicatia ruleaza intr-un proces separat, din artefactul construit cu profilul Maven "startup"
+ * (mvn -Pstartup -DskipTests package), cu sau fara AOT (-Dspring.aot.enabled), arhiva CDS si profilul Spring "startup".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final Path STARTUP_DIRECTORY = Path.of("target", "startup");
+    private static final Path JAR = STARTUP_DIRECTORY.resolve("internship-0.0.1-SNAPSHOT.jar");
+    private static final Path CDS_ARCHIVE = STARTUP_DIRECTORY.resolve("application.jsa");
+    private static final long TIMEOUT_MS = 120_000;
+
+    @Param({"default", "lazy", "aot", "cds", "aot-cds", "aot-cds-lazy"})
+    private String mode;
+
+    private Process application;
+    private int port;
+
+    @Setup(Level.Trial)
+    public void checkArtifact() {
+        if (!Files.exists(JAR) || !Files.exists(CDS_ARCHIVE)) {
+            throw new IllegalStateException(JAR + " or " + CDS_ARCHIVE + " is missing, build it with: mvn -Pstartup -DskipTests package");
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void choosePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+    }
+
+    @Benchmark
+    public int timeToFirstRequest() throws Exception {
+        application = new ProcessBuilder(command())
+                .redirectErrorStream(true)
+                .redirectOutput(STARTUP_DIRECTORY.resolve("benchmark-" + mode + ".log").toFile())
+                .start();
+
+        URI uri = URI.create("http://localhost:" + port + "/api/items?limit=1");
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            if (!application.isAlive()) {
+                throw new IllegalStateException("The application exited with code " + application.exitValue() + ", see the benchmark log in " + STARTUP_DIRECTORY);
+            }
+            try {
+                HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+                if (connection.getResponseCode() == 200) {
+                    try (InputStream body = connection.getInputStream()) {
+                        return body.readAllBytes().length;
+                    }
+                }
+            }
+            catch (IOException e) {
+                // serverul nu asculta inca pe port
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("No response from the application within " + TIMEOUT_MS + " ms");
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopApplication() throws InterruptedException {
+        if (application != null) {
+            application.destroy();
+            if (!application.waitFor(30, TimeUnit.SECONDS)) {
+                application.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private List<String> command() {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        if (mode.contains("cds")) {
+            command.add("-XX:SharedArchiveFile=" + CDS_ARCHIVE);
+        }
+        if (mode.contains("aot")) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.add("-jar");
+        command.add(JAR.toString());
+        command.add("--server.port=" + port);
+        if (mode.endsWith("lazy")) {
+            command.add("--spring.profiles.active=startup");
+        }
+        return command;
+    }
+}
@@ -2,8 +2,10 @@ package com.siemens.internship;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// conexiunile R2DBC sunt create doar in modul reactiv, de ReactiveConfig (vezi comentariul de acolo)
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class InternshipApplication {
 
 	public static void main(String[] args) {
@@ -1,23 +1,132 @@
 package com.siemens.internship.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import javax.sql.DataSource;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.ToDoubleFunction;
 
+/**
+ * Executorul pentru procesarea asincrona. Modul se alege cu items.executor.mode (vezi ExecutorMode).
+ * Pentru fiecare mod se publica metricile de saturatie items.executor.active, items.executor.waiting
+ * si items.executor.rejected, cu tag-ul mode.
+ * In modurile platform si bounded concurenta este legata de pool-ul de conexiuni: fiecare task tine o conexiune
+ * cat timp citeste sau scrie, asa ca mai multe task-uri decat conexiuni doar ar astepta in Hikari.
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    // dimensiunea implicita a pool-ului Hikari, folosita daca datasource-ul nu este Hikari
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final Logger LOGGER = LoggerFactory.getLogger(AsyncConfig.class);
+
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(20);
-        executor.initialize();
-        return executor;
+    public Executor taskExecutor(@Value("${items.executor.mode:platform}") ExecutorMode mode,
+                                 @Value("${items.executor.max-concurrency:0}") int maxConcurrency,
+                                 @Value("${items.executor.reserved-connections:0}") int reservedConnections,
+                                 ObjectProvider<DataSource> dataSource,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        Counter rejected = registry == null ? null : Counter.builder("items.executor.rejected")
+                .description("Tasks rejected by the async item executor")
+                .tag("mode", mode.name())
+                .register(registry);
+
+        LOGGER.info("Using {} task executor", mode);
+
+        switch (mode) {
+            case VIRTUAL -> {
+                // fara limita de concurenta; BoundedExecutor este folosit doar pentru contoare
+                BoundedExecutor executor = new BoundedExecutor(new VirtualThreadTaskExecutor("item-vt-"), Integer.MAX_VALUE);
+                registerGauges(registry, mode, executor, BoundedExecutor::getActiveCount, BoundedExecutor::getWaitingCount);
+                return executor;
+            }
+            case BOUNDED -> {
+                int limit = concurrencyLimit(maxConcurrency, reservedConnections, dataSource.getIfAvailable());
+                BoundedExecutor executor = new BoundedExecutor(threadPerTaskExecutor(), limit);
+                LOGGER.info("Bounded task executor limited to {} concurrent tasks", limit);
+                registerGauges(registry, mode, executor, BoundedExecutor::getActiveCount, BoundedExecutor::getWaitingCount);
+                return executor;
+            }
+            default -> {
+                int limit = concurrencyLimit(maxConcurrency, reservedConnections, dataSource.getIfAvailable());
+                ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+                executor.setCorePoolSize(Math.min(5, limit));
+                executor.setMaxPoolSize(limit);
+                executor.setQueueCapacity(20);
+                LOGGER.info("Platform task executor limited to {} threads", limit);
+                executor.setRejectedExecutionHandler((task, pool) -> {
+                    if (rejected != null) {
+                        rejected.increment();
+                    }
+                    new ThreadPoolExecutor.AbortPolicy().rejectedExecution(task, pool);
+                });
+                executor.initialize();
+                registerGauges(registry, mode, executor,
+                        ThreadPoolTaskExecutor::getActiveCount,
+                        e -> e.getThreadPoolExecutor().getQueue().size());
+                return executor;
+            }
+        }
+    }
+
+    // pe Java 21+ se folosesc virtual threads, altfel cate un thread platforma pentru fiecare task
+    private Executor threadPerTaskExecutor() {
+        if (Runtime.version().feature() >= 21) {
+            return new VirtualThreadTaskExecutor("item-vt-");
+        }
+        return new SimpleAsyncTaskExecutor("item-");
+    }
+
+    // items.executor.max-concurrency, daca este setat; altfel conexiunile din pool minus cele lasate pentru cererile HTTP
+    private int concurrencyLimit(int maxConcurrency, int reservedConnections, DataSource dataSource) {
+        if (maxConcurrency > 0) {
+            return maxConcurrency;
+        }
+        int poolSize = poolSize(dataSource);
+        if (reservedConnections >= poolSize) {
+            LOGGER.warn("items.executor.reserved-connections={} leaves no connections of {} for the executor, using 1",
+                    reservedConnections, poolSize);
+            return 1;
+        }
+        return poolSize - reservedConnections;
+    }
+
+    private int poolSize(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            return hikari.getMaximumPoolSize();
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+
+    private <T> void registerGauges(MeterRegistry registry, ExecutorMode mode, T executor,
+                                    ToDoubleFunction<T> active, ToDoubleFunction<T> waiting) {
+        if (registry == null) {
+            return;
+        }
+        Gauge.builder("items.executor.active", executor, active)
+                .description("Tasks currently running on the async item executor")
+                .tag("mode", mode.name())
+                .register(registry);
+        Gauge.builder("items.executor.waiting", executor, waiting)
+                .description("Tasks queued or callers blocked waiting for the async item executor")
+                .tag("mode", mode.name())
+                .register(registry);
     }
 }
@@ -0,0 +1,75 @@
+package com.siemens.internship.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor care limiteaza numarul de task-uri active cu un semafor.
+ * Cand toate permisiunile sunt ocupate, execute() blocheaza apelantul pana se elibereaza una,
+ * deci nu exista coada de task-uri care sa se umple si nici task-uri respinse.
+ */
+public class BoundedExecutor implements Executor {
+
+    private final Executor delegate;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final AtomicInteger active = new AtomicInteger(0);
+
+    public BoundedExecutor(Executor delegate, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        try {
+            permits.acquire();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for an executor permit", e);
+        }
+
+        try {
+            delegate.execute(() -> {
+                active.incrementAndGet();
+                try {
+                    task.run();
+                }
+                finally {
+                    active.decrementAndGet();
+                    permits.release();
+                }
+            });
+        }
+        catch (RuntimeException e) {
+            // task-ul nu a fost pornit, deci permisiunea trebuie eliberata aici
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    // cate task-uri ruleaza in acest moment
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    // cate thread-uri asteapta o permisiune (semnul ca executorul este saturat)
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+}
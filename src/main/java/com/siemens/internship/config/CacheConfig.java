@@ -0,0 +1,33 @@
+package com.siemens.internship.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache-ul de item-e este un cache Caffeine in memorie, limitat ca dimensiune si cu expirare (vezi spring.cache.caffeine.spec).
+ * Statisticile (hit/miss/eviction) sunt expuse prin actuator la /actuator/metrics/cache.gets si /actuator/metrics/cache.evictions.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // cache-ul pentru item-e, cu cheia = id-ul item-ului
+    public static final String ITEMS_CACHE = "items";
+
+    /**
+     * Inlocuieste intrarea doar daca cheia este deja in cache, altfel nu adauga nimic.
+     * Folosita de operatiile care ating multe item-e (procesarea, operatiile bulk), ca o singura rulare peste
+     * mai multe item-e decat capacitatea cache-ului sa nu scoata din cache item-ele citite des.
+     * Pentru alte implementari decat Caffeine intrarea este doar stearsa.
+     */
+    @SuppressWarnings("unchecked")
+    public static void replaceIfPresent(Cache cache, Object key, Object value) {
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) caffeine).asMap().replace(key, value);
+        }
+        else {
+            cache.evict(key);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.siemens.internship.config;
+
+/**
+ * Modul in care ruleaza taskExecutor-ul folosit de procesarea asincrona (items.executor.mode).
+ */
+public enum ExecutorMode {
+    // pool fix de thread-uri platforma cu coada limitata; peste capacitate task-urile sunt respinse
+    PLATFORM,
+
+    // cate un virtual thread pentru fiecare task (necesita Java 21)
+    VIRTUAL,
+
+    // cate un thread pentru fiecare task, dar cel mult N in paralel (N = dimensiunea pool-ului de conexiuni);
+    // peste limita, cel care trimite task-ul asteapta in loc sa primeasca TaskRejectedException
+    BOUNDED
+}
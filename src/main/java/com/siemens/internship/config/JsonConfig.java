@@ -0,0 +1,22 @@
+package com.siemens.internship.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configurarea Jackson pentru raspunsurile API-ului.
+ * Spring Boot inregistreaza orice bean Module in ObjectMapper-ul folosit de controller-e (MVC si WebFlux).
+ * Blackbird inlocuieste apelurile prin reflexie ale getter-ilor si setter-ilor cu lambda-uri generate la pornire,
+ * pentru tipurile care nu au un serializator scris de mana (Item, ProcessingJob, BulkItemResult).
+ * Listele de item-e sunt scrise de ItemView.Writer.
+ */
+@Configuration
+public class JsonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,22 @@
+package com.siemens.internship.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+/**
+ * Cu spring.main.lazy-initialization=true (profilul "startup") bean-urile sunt create la prima folosire, nu la pornire.
+ * Migrarile Flyway si EntityManagerFactory raman create la pornire: o baza de date care nu poate fi migrata
+ * sau care nu corespunde entitatilor trebuie sa opreasca pornirea instantei, nu sa esueze la prima cerere.
+ * Fara initializare lazy filtrul nu are niciun efect.
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter schemaLazyInitializationExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(FlywayMigrationInitializer.class, AbstractEntityManagerFactoryBean.class);
+    }
+}
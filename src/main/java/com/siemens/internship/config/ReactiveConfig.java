@@ -0,0 +1,90 @@
+package com.siemens.internship.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Accesul R2DBC pentru varianta reactiva a API-ului, activ doar cand aplicatia porneste ca aplicatie WebFlux
+ * (profilul "reactive", care seteaza spring.main.web-application-type=reactive).
+ * Pool-ul de conexiuni nu este expus ca bean ConnectionFactory: un astfel de bean ar opri configurarea
+ * automata a DataSource-ului JDBC, de care depind in continuare job-urile si procesarea pe loturi.
+ * Din acelasi motiv R2dbcAutoConfiguration este exclusa in InternshipApplication.
+ * Serverul este Netty; fara bean-ul de mai jos Spring Boot ar alege Tomcat, care este si el pe classpath pentru MVC.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(ReactiveConfig.class);
+
+    private ConnectionPool connectionPool;
+    private Scheduler databaseScheduler;
+
+    // url-ul trebuie sa indice aceeasi baza de date ca spring.datasource.url, schema fiind creata de Hibernate;
+    // utilizatorul si parola sunt cele ale datasource-ului JDBC
+    @Bean
+    public DatabaseClient itemDatabaseClient(@Value("${items.reactive.r2dbc-url}") String url,
+                                             @Value("${items.reactive.pool-size:10}") int poolSize,
+                                             @Value("${spring.datasource.username:}") String username,
+                                             @Value("${spring.datasource.password:}") String password,
+                                             Scheduler itemDatabaseScheduler) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+
+        // toate conexiunile se deschid la pornire; cu un pool care creste sub incarcare, unele cereri concurente
+        // din primele secunde ramaneau fara conexiune pana la timeout.
+        // O conexiune eliberata este predata urmatorului abonat in asteptare pe itemDatabaseScheduler: predata direct,
+        // pe thread-ul care o elibera, interogarea abonatului rula sincron in bucla pool-ului, iar sub incarcare
+        // pool-ul ajungea sa aiba toate conexiunile libere si zeci de cereri care asteptau la nesfarsit
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(poolSize)
+                .maxSize(poolSize)
+                .name("item-r2dbc")
+                .customizer(pool -> pool.acquisitionScheduler(itemDatabaseScheduler))
+                .build());
+
+        LOGGER.info("Reactive item API using {} with up to {} connections", url, poolSize);
+        return DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * Thread-urile pe care ReactiveItemRepository executa interogarile, cate unul pentru fiecare conexiune din pool.
+     * r2dbc-h2 ruleaza fiecare interogare pe thread-ul apelant; pe thread-urile Netty, conexiunile eliberate ajungeau
+     * toate pe acelasi event loop, care facea tot lucrul cu baza de date in timp ce cererile lui asteptau pana la timeout.
+     */
+    @Bean
+    public Scheduler itemDatabaseScheduler(@Value("${items.reactive.pool-size:10}") int poolSize) {
+        databaseScheduler = Schedulers.newBoundedElastic(poolSize, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "item-r2dbc");
+        return databaseScheduler;
+    }
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+        if (databaseScheduler != null) {
+            databaseScheduler.dispose();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.siemens.internship.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.siemens.internship.model.Item;
+
+/**
+ * Rezultatul pentru un singur element dintr-o cerere bulk.
+ *
+ * @param index  pozitia elementului in cerere
+ * @param status codul HTTP care s-ar fi intors pentru elementul respectiv luat separat
+ * @param item   item-ul salvat (doar pentru create/update reusite)
+ * @param error  mesajul de eroare (doar pentru elementele respinse)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkItemResult(int index, Long id, int status, ItemView item, String error) {
+
+    public static BulkItemResult success(int index, Item item, int status) {
+        return new BulkItemResult(index, item.getId(), status, ItemView.of(item), null);
+    }
+
+    public static BulkItemResult deleted(int index, Long id) {
+        return new BulkItemResult(index, id, 204, null, null);
+    }
+
+    public static BulkItemResult failure(int index, Long id, int status, String error) {
+        return new BulkItemResult(index, id, status, null, error);
+    }
+}
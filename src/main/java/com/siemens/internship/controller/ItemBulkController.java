@@ -0,0 +1,183 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.service.ItemService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Variantele bulk pentru create/update/delete: o singura cerere HTTP pentru mai multe item-e,
+ * scrise intr-o singura tranzactie cu batch-uri JDBC.
+ * Fiecare element este validat separat si primeste propriul rezultat, in ordinea din cerere.
+ * Un element null este respins cu 400; la update, un id care apare de mai multe ori este aplicat doar
+ * pentru prima aparitie, iar celelalte primesc 409.
+ */
+@RestController
+@RequestMapping("/api/items/bulk")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ItemBulkController {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private Validator validator;
+
+    // numarul maxim de elemente acceptate intr-o singura cerere
+    @Value("${items.bulk.max-size:10000}")
+    private int maxBulkSize;
+
+    private final Logger LOGGER = LoggerFactory.getLogger(ItemBulkController.class);
+
+    private static final String MISSING_ITEM = "Missing item";
+
+    @PostMapping
+    public ResponseEntity<List<BulkItemResult>> createItems(@RequestBody List<Item> items) {
+        if (items.size() > maxBulkSize) {
+            LOGGER.warn("Bulk create rejected, {} items exceed the limit of {}", items.size(), maxBulkSize);
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+
+        BulkItemResult[] results = new BulkItemResult[items.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        List<Item> validItems = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            String error = items.get(i) == null ? MISSING_ITEM : validate(items.get(i));
+            if (error != null) {
+                results[i] = BulkItemResult.failure(i, null, HttpStatus.BAD_REQUEST.value(), error);
+            }
+            else {
+                validIndexes.add(i);
+                validItems.add(items.get(i));
+            }
+        }
+
+        // item-ele salvate vin in aceeasi ordine ca cele trimise
+        List<Item> saved = itemService.saveAll(validItems);
+        for (int i = 0; i < saved.size(); i++) {
+            results[validIndexes.get(i)] = BulkItemResult.success(validIndexes.get(i), saved.get(i), HttpStatus.CREATED.value());
+        }
+
+        LOGGER.info("Bulk created {} of {} items", saved.size(), items.size());
+        return new ResponseEntity<>(Arrays.asList(results), HttpStatus.OK);
+    }
+
+    @PutMapping
+    public ResponseEntity<List<BulkItemResult>> updateItems(@RequestBody List<Item> items) {
+        if (items.size() > maxBulkSize) {
+            LOGGER.warn("Bulk update rejected, {} items exceed the limit of {}", items.size(), maxBulkSize);
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+
+        String[] errors = new String[items.size()];
+        boolean[] duplicates = new boolean[items.size()];
+        Set<Long> seenIds = new HashSet<>();
+        List<Item> validItems = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            if (item == null) {
+                errors[i] = MISSING_ITEM;
+            }
+            else if (item.getId() == null) {
+                errors[i] = "Missing id";
+            }
+            else {
+                errors[i] = validate(item);
+            }
+            if (errors[i] == null) {
+                // doar prima aparitie a unui id este aplicata, altfel una dintre actualizari s-ar pierde fara sa se vada
+                duplicates[i] = !seenIds.add(item.getId());
+                if (!duplicates[i]) {
+                    validItems.add(item);
+                }
+            }
+        }
+
+        ItemService.BulkUpdate bulkUpdate = itemService.updateAll(validItems);
+        Map<Long, Item> updated = bulkUpdate.updated();
+
+        List<BulkItemResult> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Long id = items.get(i) == null ? null : items.get(i).getId();
+
+            if (errors[i] != null) {
+                results.add(BulkItemResult.failure(i, id, HttpStatus.BAD_REQUEST.value(), errors[i]));
+            }
+            else if (duplicates[i]) {
+                results.add(BulkItemResult.failure(i, id, HttpStatus.CONFLICT.value(),
+                        "Item appears more than once in the request, only the first occurrence is applied"));
+            }
+            else if (updated.containsKey(id)) {
+                results.add(BulkItemResult.success(i, updated.get(id), HttpStatus.OK.value()));
+            }
+            else if (bulkUpdate.conflicts().contains(id)) {
+                results.add(BulkItemResult.failure(i, id, HttpStatus.CONFLICT.value(),
+                        "Item was modified concurrently, reload it and retry"));
+            }
+            else {
+                results.add(BulkItemResult.failure(i, id, HttpStatus.NOT_FOUND.value(), "Item not found"));
+            }
+        }
+
+        LOGGER.info("Bulk updated {} of {} items", updated.size(), items.size());
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    @DeleteMapping
+    public ResponseEntity<List<BulkItemResult>> deleteItems(@RequestBody List<Long> ids) {
+        if (ids.size() > maxBulkSize) {
+            LOGGER.warn("Bulk delete rejected, {} ids exceed the limit of {}", ids.size(), maxBulkSize);
+            return new ResponseEntity<>(HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+
+        Set<Long> deleted = itemService.deleteAllById(ids.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+
+        List<BulkItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (id == null) {
+                results.add(BulkItemResult.failure(i, null, HttpStatus.BAD_REQUEST.value(), "Missing id"));
+            }
+            else {
+                results.add(deleted.contains(id)
+                        ? BulkItemResult.deleted(i, id)
+                        : BulkItemResult.failure(i, id, HttpStatus.NOT_FOUND.value(), "Item not found"));
+            }
+        }
+
+        LOGGER.info("Bulk deleted {} of {} items", deleted.size(), ids.size());
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
+    // aceleasi reguli ca @Valid de la endpoint-urile pentru un singur item; intoarce null daca item-ul este valid
+    private String validate(Item item) {
+        Set<ConstraintViolation<Item>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -1,34 +1,195 @@
 package com.siemens.internship.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siemens.internship.model.ProcessingJob;
+import com.siemens.internship.repository.ItemFilter;
+import com.siemens.internship.repository.ItemRepositoryCustom;
+import com.siemens.internship.service.ItemBatchProcessor;
 import com.siemens.internship.service.ItemService;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.service.ProcessingAdmission;
+import com.siemens.internship.service.ProcessingJobService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/items")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ItemController {
 
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private ProcessingJobService processingJobService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProcessingAdmission processingAdmission;
+
+    // numarul de item-e pe pagina cand nu se specifica limit, respectiv maximul permis
+    @Value("${items.page.default-limit:100}")
+    private int defaultPageLimit;
+
+    @Value("${items.page.max-limit:1000}")
+    private int maxPageLimit;
+
+    // timeout-ul raspunsului in flux, 0 inseamna fara timeout (procesarea poate dura mult pe tabele mari)
+    @Value("${items.processing.stream-timeout-ms:0}")
+    private long streamTimeoutMs;
+
+    // cate linii pot astepta trimiterea catre un client lent, vezi ProgressLineSender
+    @Value("${items.processing.stream-buffer-lines:64}")
+    private int streamBufferLines;
+
+    // header-ul cu valoarea "after" pentru pagina urmatoare
+    static final String NEXT_AFTER_HEADER = "X-Next-After";
+
+    // header-ul cu valoarea "since" pentru cererea urmatoare din fluxul de modificari
+    static final String NEXT_SINCE_HEADER = "X-Next-Since";
+
     // logger folosit pentru a afisa eventuale erori sau informatii suplimentare
     private final Logger LOGGER = LoggerFactory.getLogger(ItemController.class);
 
+    /**
+     * Item-ele sunt intoarse pe pagini, cu paginare pe cheie dupa id: ?after=<ultimul id primit>&limit=N.
+     * Cu ?fields=id,status se citesc si se intorc doar campurile cerute (id este inclus mereu).
+     * Cu ?status=...&email=... se intorc doar item-ele care au exact acele valori (coloane indexate).
+     * Daca pagina este plina, header-ul X-Next-After contine valoarea pentru "after" a paginii urmatoare.
+     */
     @GetMapping
-    public ResponseEntity<List<Item>> getAllItems() {
-        return new ResponseEntity<>(itemService.findAll(), HttpStatus.OK);
+    public ResponseEntity<List<?>> getAllItems(@RequestParam(defaultValue = "0") long after,
+                                               @RequestParam(required = false) Integer limit,
+                                               @RequestParam(required = false) List<String> fields,
+                                               @RequestParam(required = false) String status,
+                                               @RequestParam(required = false) String email) {
+        ItemFilter filter = new ItemFilter(status, email);
+
+        int pageSize = limit == null ? defaultPageLimit : limit;
+        if (pageSize <= 0 || pageSize > maxPageLimit) {
+            LOGGER.warn("Invalid page limit {}", pageSize);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        List<?> page;
+        Long lastId = null;
+
+        if (fields == null || fields.isEmpty()) {
+            List<Item> items = itemService.findPage(filter, after, pageSize);
+            if (!items.isEmpty()) {
+                lastId = items.get(items.size() - 1).getId();
+            }
+            page = ItemView.of(items);
+        }
+        else {
+            // campurile necunoscute sunt respinse, altfel ar ajunge direct in interogare
+            if (!ItemRepositoryCustom.PROJECTABLE_FIELDS.containsAll(fields)) {
+                LOGGER.warn("Unknown fields requested: {}", fields);
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+
+            // id-ul este necesar pentru cursorul paginii urmatoare
+            List<String> projection = new ArrayList<>(fields.size() + 1);
+            projection.add("id");
+            fields.stream().filter(field -> !projection.contains(field)).forEach(projection::add);
+
+            List<Map<String, Object>> rows = itemService.findPageProjected(filter, after, pageSize, projection);
+            if (!rows.isEmpty()) {
+                lastId = (Long) rows.get(rows.size() - 1).get("id");
+            }
+            page = rows;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == pageSize) {
+            response.header(NEXT_AFTER_HEADER, String.valueOf(lastId));
+        }
+        return response.body(page);
+    }
+
+    /**
+     * Fluxul de modificari: item-ele create sau modificate dupa ?since=<token>, in ordinea modificarilor.
+     * Header-ul X-Next-Since contine mereu token-ul pentru cererea urmatoare (acelasi since daca nu a aparut nimic nou).
+     * Raspunsul se opreste la limita data de ChangeSeqHorizon, asa ca o modificare apare cu pana la
+     * items.changes.settle-ms intarziere, dar nu este sarita cand tranzactia ei se termina dupa una inceputa mai tarziu.
+     * Livrarea este cel putin o data: un item modificat din nou dupa ce a fost primit apare iar, cu starea noua, iar o
+     * cerere repetata cu un token mai vechi intoarce din nou aceleasi item-e; clientii aplica modificarile dupa id.
+     * Item-ele sterse nu apar.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<List<ItemView>> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                     @RequestParam(required = false) Integer limit) {
+        int pageSize = limit == null ? defaultPageLimit : limit;
+        if (pageSize <= 0 || pageSize > maxPageLimit) {
+            LOGGER.warn("Invalid page limit {}", pageSize);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        List<Item> changes = itemService.findChangesSince(since, pageSize);
+        long nextSince = changes.isEmpty() ? since : changes.get(changes.size() - 1).getChangeSeq();
+
+        return ResponseEntity.ok()
+                .header(NEXT_SINCE_HEADER, String.valueOf(nextSince))
+                .body(ItemView.of(changes));
+    }
+
+    /**
+     * Export complet al tabelei ca NDJSON, citit incremental din baza de date si scris pe masura ce este citit,
+     * asa ca memoria folosita nu depinde de numarul de item-e.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportItems() {
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            itemService.exportAll(item -> {
+                try {
+                    writer.write(objectMapper.writeValueAsString(ItemView.of(item)));
+                    writer.write('\n');
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     // aceasta metoda e folosita in createItem si updateItem asadar am facut o functie separata pentru a nu duplica codul
@@ -44,7 +205,7 @@ public class ItemController {
                 errMsg.append(err.getDefaultMessage()).append("; ");
             });
 
-            LOGGER.error("Error while creating item, error : " + errMsg.toString());
+            LOGGER.error("Error while creating item, error : {}", errMsg);
 
             // aici se returneaza erorile si se foloseste BAD_REQUEST (inainte era CREATED)
             return new ResponseEntity<>(errMsg.toString(), HttpStatus.BAD_REQUEST);
@@ -65,7 +226,7 @@ public class ItemController {
         Item createdItem = itemService.save(item);
 
         // daca totul a descurs bine se returneaza item-ul cu succes
-        LOGGER.info("Succesfully create item ID" + createdItem.getId());
+        LOGGER.info("Succesfully create item ID {}", createdItem.getId());
         return new ResponseEntity<>(createdItem, HttpStatus.CREATED);
     }
 
@@ -76,7 +237,7 @@ public class ItemController {
 
                 // ar trebui folosit NOT_FOUND in loc de NO_CONTENT pentru ca request-ul nu a fost procesat cu succes
                 .orElseGet(() -> {
-                    LOGGER.warn("Item with ID " + id + " not found");
+                    LOGGER.warn("Item with ID {} not found", id);
                     return new ResponseEntity<>(HttpStatus.NOT_FOUND);
                 });
     }
@@ -90,8 +251,8 @@ public class ItemController {
             return errMsg;
         }
 
-        // aici se cauta item-ul in baza de date
-        Optional<Item> existingItem = itemService.findById(id);
+        // aici se cauta item-ul in baza de date, nu in cache, ca versiunea folosita mai jos sa fie cea curenta
+        Optional<Item> existingItem = itemService.findCurrentById(id);
 
         // daca exista ar trebui modificat continutul acestuia
         if (existingItem.isPresent()) {
@@ -99,15 +260,30 @@ public class ItemController {
             // aici se modifica id-ul item-ului ce urmeaza sa fie salvat in locul celui vechi pentru consistenta
             item.setId(id);
 
-            // aici se salveaza item-ul
-            Item modifiedItem = itemService.save(item);
+            // daca clientul nu trimite versiunea pe care a citit-o, se foloseste versiunea curenta;
+            // daca o trimite si intre timp item-ul s-a modificat, salvarea este respinsa cu CONFLICT
+            if (item.getVersion() == null) {
+                item.setVersion(existingItem.get().getVersion());
+            }
 
-            LOGGER.info("Updated item with ID " + id);
+            // aici se salveaza item-ul
+            Item modifiedItem;
+            try {
+                modifiedItem = itemService.save(item);
+            }
+            catch (OptimisticLockingFailureException e) {
+                // clientul va reciti item-ul, deci nu trebuie sa primeasca din cache starea care a produs conflictul
+                itemService.evictStale(id);
+                LOGGER.warn("Item with ID {} was modified concurrently", id);
+                return new ResponseEntity<>("Item was modified concurrently, reload it and retry", HttpStatus.CONFLICT);
+            }
+
+            LOGGER.info("Updated item with ID {}", id);
 
             // daca a fost cu succes se returneaza item-ul actualizat si ar trebui folosit OK in loc de CREATED
             return new ResponseEntity<>(modifiedItem, HttpStatus.OK);
         } else {
-            LOGGER.warn("Item not found with ID " + id);
+            LOGGER.warn("Item not found with ID {}", id);
 
             // daca nu exista ar trebui returnat NOT_FOUND, nu ACCEPTED
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -124,32 +300,154 @@ public class ItemController {
         if(item.isPresent()) {
             itemService.deleteById(id);
 
-            LOGGER.info("Deleted item with ID " + id);
+            LOGGER.info("Deleted item with ID {}", id);
 
             // aici ar trebui returnat NO_CONTENT, nu CONFLICT, deoarece nu exista vreun conflict cu item-ul sters
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         }
         else {
-            LOGGER.warn("Item with ID " + id + " doesn't exist, so nothing was deleted");
+            LOGGER.warn("Item with ID {} doesn't exist, so nothing was deleted", id);
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
 
+    /**
+     * Cererile concurente cu acelasi mode se alatura rularii deja pornite si primesc acelasi rezultat.
+     * Peste limita clientului raspunsul este 429, iar daca ruleaza deja alta procesare este 503;
+     * in ambele cazuri header-ul Retry-After spune dupa cate secunde merita reincercat.
+     */
     @GetMapping("/process")
-    public ResponseEntity<List<Item>> processItems() {
+    public ResponseEntity<List<ItemView>> processItems(@RequestParam(defaultValue = "single") String mode,
+                                                       HttpServletRequest request) {
         try {
-            // aici se foloseste o metoda asincrona pentru a procesa toate itemele
-            CompletableFuture<List<Item>> futureItemList = itemService.processItemsAsync();
+            // mode=single proceseaza fiecare item separat, mode=batch proceseaza pe loturi,
+            // mode=incremental proceseaza pe loturi doar item-ele modificate de la ultima rulare incrementala reusita,
+            // mode=partitioned proceseaza pe loturi doar partitiile de id-uri luate de aceasta instanta
+            Supplier<CompletableFuture<List<Item>>> starter;
+            if ("batch".equalsIgnoreCase(mode)) {
+                starter = itemService::processItemsInBatchesAsync;
+            }
+            else if ("incremental".equalsIgnoreCase(mode)) {
+                starter = itemService::processItemsIncrementallyAsync;
+            }
+            else if ("partitioned".equalsIgnoreCase(mode)) {
+                starter = itemService::processItemsPartitionedAsync;
+            }
+            else if ("single".equalsIgnoreCase(mode)) {
+                starter = itemService::processItemsAsync;
+            }
+            else {
+                LOGGER.warn("Unknown processing mode {}", mode);
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+
+            ProcessingAdmission.Admission<List<Item>> admission =
+                    processingAdmission.admit(request.getRemoteAddr(), mode.toLowerCase(Locale.ROOT), starter);
+            if (!admission.admitted()) {
+                return rejected(admission.outcome(), admission.retryAfterSeconds());
+            }
 
             // aici se va astepta terminarea procesarii tuturor item-elor (ele sunt procesate in paralel)
-            List<Item> itemList = futureItemList.join();
+            List<Item> itemList = admission.result().join();
 
             // aici se returneaza lista elementelor procesate, fiind returnate cu succes
-            return new ResponseEntity<>(itemList, HttpStatus.OK);
+            return new ResponseEntity<>(ItemView.of(itemList), HttpStatus.OK);
         }
         catch (Exception e) {
             LOGGER.error("Unexpected error while processing items", e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    // 429 cand clientul a depasit limita, 503 cand serverul nu mai accepta alta procesare
+    private <T> ResponseEntity<T> rejected(ProcessingAdmission.Outcome outcome, long retryAfterSeconds) {
+        HttpStatus status = outcome == ProcessingAdmission.Outcome.RATE_LIMITED
+                ? HttpStatus.TOO_MANY_REQUESTS
+                : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .build();
+    }
+
+    /**
+     * Porneste procesarea ca job persistent in fundal si returneaza imediat job-ul creat.
+     * Progresul se poate urmari cu GET /api/items/process/{jobId}.
+     * Job-ul ocupa un loc din items.process.max-concurrent-runs pana se termina; peste limita raspunsul este 503.
+     */
+    @PostMapping("/process")
+    public ResponseEntity<ProcessingJob> startProcessingJob(HttpServletRequest request) {
+        AtomicReference<ProcessingJob> started = new AtomicReference<>();
+        ProcessingAdmission.Admission<ProcessingJob> admission = processingAdmission.admitSeparate(
+                request.getRemoteAddr(), "job", () -> {
+                    ProcessingJobService.StartedJob startedJob = processingJobService.startJob();
+                    started.set(startedJob.job());
+                    return startedJob.completion();
+                });
+        if (!admission.admitted()) {
+            return rejected(admission.outcome(), admission.retryAfterSeconds());
+        }
+
+        ProcessingJob job = started.get();
+
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{jobId}")
+                .buildAndExpand(job.getId())
+                .toUri();
+
+        // ACCEPTED pentru ca procesarea abia a inceput
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @GetMapping("/process/{jobId}")
+    public ResponseEntity<ProcessingJob> getProcessingJob(@PathVariable Long jobId) {
+        return processingJobService.findById(jobId)
+                .map(job -> new ResponseEntity<>(job, HttpStatus.OK))
+                .orElseGet(() -> {
+                    LOGGER.warn("Processing job with ID {} not found", jobId);
+                    return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+                });
+    }
+
+    /**
+     * Varianta in flux a lui /process: raspunsul este NDJSON si fiecare lot este scris imediat dupa ce a fost salvat,
+     * impreuna cu numarul curent de item-e procesate si esuate.
+     * Thread-ul servlet este eliberat imediat, iar item-ele nu sunt tinute in memorie pana la final.
+     * Liniile sunt scrise de ProgressLineSender, deci un client lent nu opreste thread-urile de procesare.
+     * Fiecare cerere are rularea ei, care ocupa un loc din items.process.max-concurrent-runs; peste limita raspunsul este 503.
+     */
+    @GetMapping(value = "/process/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> processItemsStream(HttpServletRequest request) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(streamTimeoutMs);
+        ProgressLineSender sender = new ProgressLineSender(emitter, objectMapper, streamBufferLines);
+        AtomicInteger processedCount = new AtomicInteger(0);
+        AtomicInteger failedCount = new AtomicInteger(0);
+
+        ProcessingAdmission.Admission<ItemBatchProcessor.BatchSummary> admission = processingAdmission.admitSeparate(
+                request.getRemoteAddr(), "stream", () -> itemService.processItemsStreaming(result -> {
+                    // lotul si contoarele intra in coada impreuna, ca liniile sa apara in ordinea in care cresc
+                    // contoarele; send() nu asteapta clientul, deci lock-ul este tinut foarte putin
+                    synchronized (sender) {
+                        int processed = processedCount.addAndGet(result.processed());
+                        int failed = failedCount.addAndGet(result.failed());
+                        sender.send(ProcessingProgress.chunk(result.sequence(), result.items(), processed, failed));
+                    }
+                }));
+        if (!admission.admitted()) {
+            return rejected(admission.outcome(), admission.retryAfterSeconds());
+        }
+        emitter.onTimeout(sender::abandon);
+        emitter.onError(e -> sender.abandon());
+        sender.start();
+
+        admission.result().whenComplete((summary, e) -> {
+            if (e != null) {
+                LOGGER.error("Unexpected error while streaming processed items", e);
+                sender.finish(null, e);
+                return;
+            }
+            sender.finish(ProcessingProgress.summary(summary.processed(), summary.failed()), null);
+        });
+
+        return ResponseEntity.ok(emitter);
+    }
 }
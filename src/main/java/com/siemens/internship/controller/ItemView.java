@@ -0,0 +1,65 @@
+package com.siemens.internship.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.siemens.internship.model.Item;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Forma in care un item este trimis clientului in listele de item-e (paginile din getAllItems, fluxul de modificari,
+ * rezultatul procesarii, exportul NDJSON si rezultatele bulk).
+ * Campurile si ordinea lor sunt aceleasi ca la serializarea entitatii Item, deci contractul JSON nu se schimba,
+ * dar valorile sunt copiate din entitate inainte de scriere: un proxy Hibernate este citit o singura data, in of(),
+ * iar scrierea nu mai trece prin introspectia Jackson pe entitate.
+ * Writer scrie campurile direct in JsonGenerator, asa ca aceeasi cale este folosita pentru JSON, Smile si CBOR.
+ */
+@JsonSerialize(using = ItemView.Writer.class)
+public record ItemView(Long id, String name, String description, String status, String email, Long version) {
+
+    public static ItemView of(Item item) {
+        return new ItemView(item.getId(), item.getName(), item.getDescription(), item.getStatus(), item.getEmail(),
+                item.getVersion());
+    }
+
+    public static List<ItemView> of(List<Item> items) {
+        List<ItemView> views = new ArrayList<>(items.size());
+        for (Item item : items) {
+            views.add(of(item));
+        }
+        return views;
+    }
+
+    // campurile null sunt scrise ca null, la fel ca pentru entitate
+    static final class Writer extends StdSerializer<ItemView> {
+
+        Writer() {
+            super(ItemView.class);
+        }
+
+        @Override
+        public void serialize(ItemView item, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject(item);
+            writeNumberField(generator, "id", item.id());
+            generator.writeStringField("name", item.name());
+            generator.writeStringField("description", item.description());
+            generator.writeStringField("status", item.status());
+            generator.writeStringField("email", item.email());
+            writeNumberField(generator, "version", item.version());
+            generator.writeEndObject();
+        }
+
+        private static void writeNumberField(JsonGenerator generator, String name, Long value) throws IOException {
+            if (value == null) {
+                generator.writeNullField(name);
+            }
+            else {
+                generator.writeNumberField(name, value.longValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.siemens.internship.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.siemens.internship.model.Item;
+
+import java.util.List;
+
+/**
+ * O linie din raspunsul NDJSON al procesarii in flux.
+ * Pentru fiecare lot se trimite un "chunk" cu item-ele salvate si contoarele curente,
+ * iar la final un "summary" cu totalurile.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProcessingProgress(String type, Long chunk, List<ItemView> items, int processed, int failed) {
+
+    public static ProcessingProgress chunk(long chunk, List<Item> items, int processed, int failed) {
+        return new ProcessingProgress("chunk", chunk, ItemView.of(items), processed, failed);
+    }
+
+    public static ProcessingProgress summary(int processed, int failed) {
+        return new ProcessingProgress("summary", null, null, processed, failed);
+    }
+}
@@ -0,0 +1,114 @@
+package com.siemens.internship.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Scrie liniile NDJSON ale procesarii in flux pe un thread propriu, ca un client lent sa nu tina thread-urile care
+ * proceseaza loturile: send() doar pune linia in coada si revine imediat.
+ * In coada asteapta cel mult capacity linii; un client care ramane mai mult in urma primeste raspunsul inchis cu
+ * eroare, iar procesarea continua fara el (la fel ca dupa o deconectare).
+ */
+public final class ProgressLineSender implements Runnable {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(ProgressLineSender.class);
+
+    // ultimul element din coada: raspunsul se inchide cu error, sau normal daca error este null
+    private record End(Throwable error) {
+    }
+
+    private final ResponseBodyEmitter emitter;
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+
+    // marginita de capacity prin send(), plus cel mult doua elemente puse de finish()
+    private final BlockingQueue<Object> lines = new LinkedBlockingQueue<>();
+    private boolean closed;
+
+    public ProgressLineSender(ResponseBodyEmitter emitter, ObjectMapper objectMapper, int capacity) {
+        this.emitter = emitter;
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+    }
+
+    public void start() {
+        Thread thread = new Thread(this, "item-stream-sender");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Pune linia in coada; false daca raspunsul este deja inchis (client deconectat sau prea lent).
+     */
+    public synchronized boolean send(ProcessingProgress progress) {
+        if (closed) {
+            return false;
+        }
+        if (lines.size() >= capacity) {
+            LOGGER.warn("Processing stream client is more than {} lines behind, closing the response", capacity);
+            closed = true;
+            lines.clear();
+            lines.add(new End(new IllegalStateException("Client too slow for the processing stream")));
+            return false;
+        }
+        lines.add(progress);
+        return true;
+    }
+
+    // ultima linie (poate fi null) si inchiderea raspunsului, dupa liniile deja puse in coada
+    public synchronized void finish(ProcessingProgress last, Throwable error) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (last != null) {
+            lines.add(last);
+        }
+        lines.add(new End(error));
+    }
+
+    // raspunsul a fost inchis din afara (timeout, eroare de conexiune): liniile ramase nu mai au unde sa fie scrise
+    public synchronized void abandon() {
+        if (!closed) {
+            closed = true;
+            lines.clear();
+            lines.add(new End(null));
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                Object line = lines.take();
+                if (line instanceof End end) {
+                    if (end.error() == null) {
+                        emitter.complete();
+                    }
+                    else {
+                        emitter.completeWithError(end.error());
+                    }
+                    return;
+                }
+                try {
+                    emitter.send(objectMapper.writeValueAsString(line) + "\n", MediaType.APPLICATION_NDJSON);
+                }
+                catch (IOException | IllegalStateException e) {
+                    // clientul s-a deconectat; procesarea continua, doar nu mai are cui sa trimita progresul
+                    LOGGER.debug("Could not send processing progress to client", e);
+                    abandon();
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
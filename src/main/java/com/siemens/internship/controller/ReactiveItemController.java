@@ -0,0 +1,345 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ProcessingJob;
+import com.siemens.internship.repository.ItemFilter;
+import com.siemens.internship.repository.ItemRepositoryCustom;
+import com.siemens.internship.service.ItemBatchProcessor;
+import com.siemens.internship.service.ProcessingAdmission;
+import com.siemens.internship.service.ProcessingJobService;
+import com.siemens.internship.service.ReactiveItemService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Acelasi contract ca ItemController (/api/items), pe WebFlux si R2DBC, activ doar cu profilul "reactive".
+ * Niciun thread nu este tinut ocupat cat timp se asteapta baza de date sau procesarea.
+ * Job-urile persistente (POST /process si GET /process/{jobId}) folosesc in continuare ProcessingJobService (JPA),
+ * apelat pe Schedulers.boundedElastic(). Endpoint-urile bulk exista doar in varianta MVC.
+ */
+@RestController
+@RequestMapping("/api/items")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemController {
+
+    @Autowired
+    private ReactiveItemService itemService;
+
+    @Autowired
+    private ProcessingJobService processingJobService;
+
+    @Autowired
+    private ProcessingAdmission processingAdmission;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${items.page.default-limit:100}")
+    private int defaultPageLimit;
+
+    @Value("${items.page.max-limit:1000}")
+    private int maxPageLimit;
+
+    // cat asteapta locul ocupat de /process/stream sa fie citit corpul raspunsului, inainte sa fie eliberat
+    @Value("${items.processing.stream-subscribe-timeout-ms:30000}")
+    private long streamSubscribeTimeoutMs;
+
+    private final Logger LOGGER = LoggerFactory.getLogger(ReactiveItemController.class);
+
+    /**
+     * La fel ca ItemController.getAllItems: paginare pe cheie (after, limit), proiectie (fields),
+     * filtre (status, email) si header-ul X-Next-After cand pagina este plina.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<List<?>>> getAllItems(@RequestParam(defaultValue = "0") long after,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestParam(required = false) List<String> fields,
+                                                     @RequestParam(required = false) String status,
+                                                     @RequestParam(required = false) String email) {
+        ItemFilter filter = new ItemFilter(status, email);
+
+        int pageSize = limit == null ? defaultPageLimit : limit;
+        if (pageSize <= 0 || pageSize > maxPageLimit) {
+            LOGGER.warn("Invalid page limit {}", pageSize);
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+
+        if (fields == null || fields.isEmpty()) {
+            return itemService.findPage(filter, after, pageSize)
+                    .collectList()
+                    .map(items -> page(ItemView.of(items), pageSize,
+                            items.isEmpty() ? null : items.get(items.size() - 1).getId()));
+        }
+
+        // campurile necunoscute sunt respinse, altfel ar ajunge direct in interogare
+        if (!ItemRepositoryCustom.PROJECTABLE_FIELDS.containsAll(fields)) {
+            LOGGER.warn("Unknown fields requested: {}", fields);
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+
+        // id-ul este necesar pentru cursorul paginii urmatoare
+        List<String> projection = new ArrayList<>(fields.size() + 1);
+        projection.add("id");
+        fields.stream().filter(field -> !projection.contains(field)).forEach(projection::add);
+
+        return itemService.findPageProjected(filter, after, pageSize, projection)
+                .collectList()
+                .map(rows -> page(rows, pageSize, rows.isEmpty() ? null : (Long) rows.get(rows.size() - 1).get("id")));
+    }
+
+    private ResponseEntity<List<?>> page(List<?> page, int pageSize, Long lastId) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == pageSize) {
+            response.header(ItemController.NEXT_AFTER_HEADER, String.valueOf(lastId));
+        }
+        return response.body(page);
+    }
+
+    // exportul NDJSON este scris pe masura ce randurile sunt citite, in ritmul in care le consuma clientul
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ItemView> exportItems() {
+        return itemService.exportAll().map(ItemView::of);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> createItem(@RequestBody Item item) {
+        String error = validate(item);
+        if (error != null) {
+            LOGGER.error("Error while creating item, error : {}", error);
+            return Mono.just(new ResponseEntity<>(error, HttpStatus.BAD_REQUEST));
+        }
+
+        return itemService.create(item)
+                .map(createdItem -> {
+                    LOGGER.info("Succesfully create item ID {}", createdItem.getId());
+                    return new ResponseEntity<>(createdItem, HttpStatus.CREATED);
+                });
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Item>> getItemById(@PathVariable Long id) {
+        return itemService.findById(id)
+                .map(item -> new ResponseEntity<>(item, HttpStatus.OK))
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    LOGGER.warn("Item with ID {} not found", id);
+                    return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+                }));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<?>> updateItem(@PathVariable Long id, @RequestBody Item item) {
+        String error = validate(item);
+        if (error != null) {
+            LOGGER.error("Error while creating item, error : {}", error);
+            return Mono.just(new ResponseEntity<>(error, HttpStatus.BAD_REQUEST));
+        }
+
+        return itemService.update(id, item)
+                .<ResponseEntity<?>>map(modifiedItem -> {
+                    LOGGER.info("Updated item with ID {}", id);
+                    return new ResponseEntity<>(modifiedItem, HttpStatus.OK);
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    LOGGER.warn("Item not found with ID {}", id);
+                    return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+                }))
+                .onErrorResume(OptimisticLockingFailureException.class, e -> {
+                    LOGGER.warn("Item with ID {} was modified concurrently", id);
+                    return Mono.just(new ResponseEntity<>("Item was modified concurrently, reload it and retry", HttpStatus.CONFLICT));
+                });
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteItem(@PathVariable Long id) {
+        return itemService.deleteById(id)
+                .map(deleted -> {
+                    if (deleted) {
+                        LOGGER.info("Deleted item with ID {}", id);
+                        return new ResponseEntity<Void>(HttpStatus.NO_CONTENT);
+                    }
+                    LOGGER.warn("Item with ID {} doesn't exist, so nothing was deleted", id);
+                    return new ResponseEntity<Void>(HttpStatus.NOT_FOUND);
+                });
+    }
+
+    /**
+     * La fel ca ItemController.processItems (inclusiv controlul admiterii), dar raspunsul este scris
+     * cand se termina Flux-ul procesarii, fara sa astepte niciun thread.
+     * mode=single proceseaza cate un item pe lot, mode=batch foloseste items.processing.chunk-size.
+     */
+    @GetMapping("/process")
+    public Mono<ResponseEntity<List<ItemView>>> processItems(@RequestParam(defaultValue = "single") String mode,
+                                                             ServerHttpRequest request) {
+        boolean perItem;
+        if ("batch".equalsIgnoreCase(mode)) {
+            perItem = false;
+        }
+        else if ("single".equalsIgnoreCase(mode)) {
+            perItem = true;
+        }
+        else {
+            LOGGER.warn("Unknown processing mode {}", mode);
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+
+        ProcessingAdmission.Admission<List<Item>> admission = processingAdmission.admit(clientId(request),
+                mode.toLowerCase(Locale.ROOT),
+                () -> itemService.process(perItem)
+                        .concatMapIterable(ItemBatchProcessor.ChunkResult::items)
+                        .collectList()
+                        .toFuture());
+        if (!admission.admitted()) {
+            return Mono.just(rejected(admission.outcome(), admission.retryAfterSeconds()));
+        }
+
+        // rularea poate fi comuna mai multor cereri, asa ca deconectarea unui client nu trebuie sa o anuleze
+        return Mono.fromFuture(admission.result(), true)
+                .map(itemList -> new ResponseEntity<>(ItemView.of(itemList), HttpStatus.OK))
+                .onErrorResume(e -> {
+                    LOGGER.error("Unexpected error while processing items", e);
+                    return Mono.just(new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR));
+                });
+    }
+
+    // 429 cand clientul a depasit limita, 503 cand serverul nu mai accepta alta procesare
+    private <T> ResponseEntity<T> rejected(ProcessingAdmission.Outcome outcome, long retryAfterSeconds) {
+        HttpStatus status = outcome == ProcessingAdmission.Outcome.RATE_LIMITED
+                ? HttpStatus.TOO_MANY_REQUESTS
+                : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .build();
+    }
+
+    /**
+     * La fel ca ItemController.startProcessingJob: job-ul ocupa un loc din items.process.max-concurrent-runs pana se termina.
+     */
+    @PostMapping("/process")
+    public Mono<ResponseEntity<ProcessingJob>> startProcessingJob(ServerHttpRequest request) {
+        // pornirea job-ului il salveaza in baza de date, deci nu ruleaza pe event loop
+        return Mono.fromCallable(() -> {
+                    AtomicReference<ProcessingJob> started = new AtomicReference<>();
+                    ProcessingAdmission.Admission<ProcessingJob> admission = processingAdmission.admitSeparate(
+                            clientId(request), "job", () -> {
+                                ProcessingJobService.StartedJob startedJob = processingJobService.startJob();
+                                started.set(startedJob.job());
+                                return startedJob.completion();
+                            });
+                    if (!admission.admitted()) {
+                        return this.<ProcessingJob>rejected(admission.outcome(), admission.retryAfterSeconds());
+                    }
+
+                    URI location = UriComponentsBuilder.fromUri(request.getURI())
+                            .path("/{jobId}")
+                            .buildAndExpand(started.get().getId())
+                            .toUri();
+                    return ResponseEntity.accepted().location(location).body(started.get());
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @GetMapping("/process/{jobId}")
+    public Mono<ResponseEntity<ProcessingJob>> getProcessingJob(@PathVariable Long jobId) {
+        return Mono.fromCallable(() -> processingJobService.findById(jobId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(job -> job
+                        .map(found -> new ResponseEntity<>(found, HttpStatus.OK))
+                        .orElseGet(() -> {
+                            LOGGER.warn("Processing job with ID {} not found", jobId);
+                            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+                        }));
+    }
+
+    /**
+     * La fel ca ItemController.processItemsStream: cate o linie NDJSON pentru fiecare lot si una la final.
+     * Rularea ocupa un loc din items.process.max-concurrent-runs pana cand Flux-ul se termina sau este anulat.
+     */
+    @GetMapping(value = "/process/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Flux<ProcessingProgress>>> processItemsStream(ServerHttpRequest request) {
+        AtomicInteger processedCount = new AtomicInteger(0);
+        AtomicInteger failedCount = new AtomicInteger(0);
+
+        // loturile sunt emise in ordine, una dupa alta, deci contoarele cresc in ordinea liniilor
+        Flux<ProcessingProgress> progress = itemService.process(false)
+                .map(result -> ProcessingProgress.chunk(result.sequence(), result.items(),
+                        processedCount.addAndGet(result.processed()), failedCount.addAndGet(result.failed())))
+                .concatWith(Mono.fromSupplier(() -> ProcessingProgress.summary(processedCount.get(), failedCount.get())))
+                .doOnError(e -> LOGGER.error("Unexpected error while streaming processed items", e));
+
+        // admiterea decide statusul raspunsului, deci se face inainte; Flux-ul porneste procesarea abia cand este
+        // scris raspunsul, iar locul se elibereaza la final, la eroare sau la deconectare. Daca corpul nu este citit
+        // deloc (conexiunea se inchide inainte, raspunsul este anulat), locul se elibereaza dupa
+        // stream-subscribe-timeout-ms; cine ajunge primul (corpul sau eliberarea) castiga, o singura data
+        CompletableFuture<Void> finished = new CompletableFuture<>();
+        ProcessingAdmission.Admission<Void> admission =
+                processingAdmission.admitSeparate(clientId(request), "stream", () -> finished);
+        if (!admission.admitted()) {
+            return Mono.just(rejected(admission.outcome(), admission.retryAfterSeconds()));
+        }
+
+        AtomicBoolean claimed = new AtomicBoolean(false);
+        Runnable releaseUnlessSubscribed = () -> {
+            if (claimed.compareAndSet(false, true)) {
+                LOGGER.warn("Processing stream response was never read, releasing its admission slot");
+                finished.complete(null);
+            }
+        };
+        Mono.delay(Duration.ofMillis(streamSubscribeTimeoutMs)).subscribe(tick -> releaseUnlessSubscribed.run());
+
+        Flux<ProcessingProgress> body = Flux.defer(() -> claimed.compareAndSet(false, true)
+                        ? progress.doFinally(signal -> finished.complete(null))
+                        : Flux.<ProcessingProgress>empty());
+
+        return Mono.just(ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body))
+                .doOnCancel(releaseUnlessSubscribed)
+                .doOnError(e -> releaseUnlessSubscribed.run());
+    }
+
+    // aceleasi reguli si acelasi mesaj ca @Valid din ItemController; null daca item-ul este valid
+    private String validate(Item item) {
+        Set<ConstraintViolation<Item>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        StringBuilder errMsg = new StringBuilder();
+        violations.forEach(violation -> errMsg.append(violation.getMessage()).append("; "));
+        return errMsg.toString();
+    }
+
+    // echivalentul lui HttpServletRequest.getRemoteAddr()
+    private String clientId(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return "unknown";
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+}
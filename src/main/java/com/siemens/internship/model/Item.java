@@ -1,31 +1,70 @@
 package com.siemens.internship.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 import jakarta.validation.constraints.Pattern;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+// indexul (status, id) serveste atat filtrarea dupa status cat si parcurgerea pe chei a item-elor neprocesate;
+// (change_seq) serveste fluxul de modificari, iar (status, change_seq) procesarea incrementala
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_item_status_id", columnList = "status, id"),
+        @Index(name = "idx_item_email", columnList = "email"),
+        @Index(name = "idx_item_change_seq", columnList = "change_seq"),
+        @Index(name = "idx_item_status_change_seq", columnList = "status, change_seq")
+})
 @Getter
 @Setter
-@AllArgsConstructor
 @NoArgsConstructor
 public class Item {
+
+    // valorile posibile pentru status, folosite atat la procesarea individuala cat si la cea pe loturi
+    public static final String STATUS_NEPROCESAT = "NEPROCESAT";
+    public static final String STATUS_PROCESSED = "PROCESSED";
+
+    // id-urile se iau dintr-o secventa in blocuri de cate 50, ca insert-urile sa poata fi trimise in batch JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+    @SequenceGenerator(name = "item_seq", sequenceName = "item_seq", allocationSize = 50)
     private Long id;
     private String name;
     private String description;
 
     // aceasta ar fi valoarea default inainte ca item-ul sa fie procesat
-    private String status = "NEPROCESAT";
+    private String status = STATUS_NEPROCESAT;
 
     @Pattern(regexp = "^[a-zA-Z0-9-\\.]+@[a-zA-Z0-9-]+\\.[a-zA-Z]{2,4}$", message = "Wrong email format")
     private String email;
-}
\ No newline at end of file
+
+    // versiunea pentru optimistic locking; o actualizare cu o versiune veche este respinsa in loc sa suprascrie
+    @Version
+    private Long version;
+
+    // numarul de ordine al ultimei modificari, dat de baza de date din secventa item_change_seq la fiecare INSERT
+    // si UPDATE (inclusiv cele scrise direct in SQL sau prin R2DBC); nu este recitit dupa salvare, asa ca valoarea
+    // din entitate poate fi veche si nu este trimisa clientilor
+    @JsonIgnore
+    @Column(name = "change_seq", insertable = false, updatable = false,
+            columnDefinition = "BIGINT DEFAULT NEXT VALUE FOR item_change_seq ON UPDATE NEXT VALUE FOR item_change_seq")
+    private Long changeSeq;
+
+    public Item(Long id, String name, String description, String status, String email) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.status = status;
+        this.email = email;
+    }
+}
@@ -0,0 +1,47 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Starea persistata a unei procesari pe loturi, ca sa poata fi urmarita prin API si reluata dupa o repornire.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProcessingJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private ProcessingJobStatus status = ProcessingJobStatus.RUNNING;
+
+    // ultimul id pana la care toate item-ele au fost procesate; de aici se reia job-ul dupa o intrerupere
+    private long checkpointId;
+
+    // instanta care ruleaza job-ul (InstanceIdentity); updatedAt este heartbeat-ul ei
+    private String owner;
+
+    private int processedCount;
+    private int failedCount;
+
+    // mesajul erorii care a oprit job-ul, daca este cazul
+    @Column(length = 1000)
+    private String lastError;
+
+    private Instant createdAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+}
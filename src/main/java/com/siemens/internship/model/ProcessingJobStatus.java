@@ -0,0 +1,8 @@
+package com.siemens.internship.model;
+
+public enum ProcessingJobStatus {
+    // job-ul ruleaza (sau a fost intrerupt de o repornire si va fi reluat de la checkpoint)
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,34 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Dreptul unei instante de a procesa o partitie de id-uri, pana la leasedUntil.
+ * Partitia p contine id-urile din intervalul (p * partitionSize, (p + 1) * partitionSize].
+ * O partitie fara owner, sau al carei lease a expirat (instanta a cazut), poate fi luata de oricine.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProcessingLease {
+
+    @Id
+    private Long partitionId;
+
+    private String owner;
+
+    private Instant leasedUntil;
+
+    public ProcessingLease(Long partitionId, String owner, Instant leasedUntil) {
+        this.partitionId = partitionId;
+        this.owner = owner;
+        this.leasedUntil = leasedUntil;
+    }
+}
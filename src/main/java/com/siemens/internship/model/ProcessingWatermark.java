@@ -0,0 +1,36 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Pana unde a ajuns procesarea incrementala: toate item-ele modificate pana la changeSeq (inclusiv)
+ * au fost procesate de o rulare terminata fara erori. Urmatoarea rulare incepe dupa aceasta valoare.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProcessingWatermark {
+
+    // numele watermark-ului folosit de procesarea item-elor
+    public static final String ITEMS = "items";
+
+    @Id
+    private String name;
+
+    private long changeSeq;
+
+    private Instant updatedAt;
+
+    public ProcessingWatermark(String name, long changeSeq, Instant updatedAt) {
+        this.name = name;
+        this.changeSeq = changeSeq;
+        this.updatedAt = updatedAt;
+    }
+}
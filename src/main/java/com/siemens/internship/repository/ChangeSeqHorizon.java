@@ -0,0 +1,107 @@
+package com.siemens.internship.repository;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita pana la care fluxul de modificari (change_seq) este complet.
+ * change_seq este luat din secventa cand se executa UPDATE/INSERT, nu la commit, asa ca o tranzactie mai lunga
+ * poate face vizibil un change_seq mai mic decat unul deja citit; un cititor care ar avansa pana la cel mai mare
+ * change_seq vizibil ar sari peste el. Toate valorile mai mici decat un change_seq vizibil la momentul t au fost
+ * luate inainte de t, deci dupa settle-ms (mai mult decat cea mai lunga tranzactie de scriere) sunt fie salvate,
+ * fie anulate. settledChangeSeq() intoarce cel mai mare change_seq vazut de cel putin settle-ms, iar fluxul de
+ * modificari si procesarea incrementala nu trec de aceasta limita.
+ * Cu items.changes.settle-ms=0 limita este cel mai mare change_seq vizibil (fara protectie).
+ */
+@Component
+public class ChangeSeqHorizon {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(ChangeSeqHorizon.class);
+
+    private final ItemRepository itemRepository;
+    private final long settleMs;
+
+    // maximele observate, crescatoare; fiecare pastreaza momentul la care a fost vazut prima data
+    private final Deque<Sample> samples = new ArrayDeque<>();
+    private long settled;
+    private ScheduledExecutorService sampler;
+
+    private record Sample(long observedAtNanos, long changeSeq) {
+    }
+
+    public ChangeSeqHorizon(ItemRepository itemRepository,
+                            @Value("${items.changes.settle-ms:1000}") long settleMs) {
+        if (settleMs < 0) {
+            throw new IllegalArgumentException("items.changes.settle-ms must not be negative");
+        }
+        this.itemRepository = itemRepository;
+        this.settleMs = settleMs;
+    }
+
+    /**
+     * Cel mai mare change_seq sub care nu mai poate aparea nicio modificare noua.
+     */
+    public long settledChangeSeq() {
+        if (settleMs == 0) {
+            return itemRepository.findMaxChangeSeq();
+        }
+        return sample();
+    }
+
+    // esantioanele sunt luate si intre cereri, ca limita sa ramana in urma maximului cu aproximativ settle-ms
+    @EventListener(ApplicationReadyEvent.class)
+    public void startSampling() {
+        if (settleMs == 0) {
+            return;
+        }
+        long interval = Math.max(1, settleMs / 4);
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-seq-horizon");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleWithFixedDelay(() -> {
+            try {
+                sample();
+            }
+            catch (Exception e) {
+                // o eroare trecatoare nu opreste esantioanele urmatoare
+                LOGGER.error("Error while sampling the change sequence", e);
+            }
+        }, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+
+    private long sample() {
+        long max = itemRepository.findMaxChangeSeq();
+        // momentul este luat dupa citire, deci nu este niciodata mai devreme decat aparitia lui max
+        long now = System.nanoTime();
+        synchronized (samples) {
+            if (max > settled && (samples.isEmpty() || samples.peekLast().changeSeq() < max)) {
+                samples.addLast(new Sample(now, max));
+            }
+            long settleNanos = TimeUnit.MILLISECONDS.toNanos(settleMs);
+            while (!samples.isEmpty() && now - samples.peekFirst().observedAtNanos() >= settleNanos) {
+                settled = samples.pollFirst().changeSeq();
+            }
+            return settled;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.Item;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Citirile de item-e servite dintr-un CompactItemStore in loc de JPA (items.store.compact.enabled), pentru
+ * instantele care fac mai ales GET /api/items/{id} si GET /api/items pe o tabela care incape in memorie.
+ * La pornire store-ul este citit din snapshot (daca exista) si adus la zi din fluxul de modificari (change_seq),
+ * altfel este incarcat complet din acelasi flux. Apoi un thread citeste la fiecare refresh-ms modificarile noi, pana la
+ * limita stabila data de ChangeSeqHorizon. Stergerile nu apar in flux: la fiecare delete-check-ms numarul si suma
+ * id-urilor din store sunt comparate cu tabela, iar cand difera id-urile sunt comparate pagina cu pagina. Pentru modificarile pe care fluxul tot le-ar pierde (o tranzactie mai lunga decat
+ * items.changes.settle-ms), la fiecare reconcile-ms intreaga tabela este comparata cu store-ul.
+ * ItemService scrie si direct in store dupa fiecare commit, ca o citire dupa propria scriere sa vada rezultatul.
+ * Modificarile facute pe alte cai (procesarea, SQL direct) apar dupa cel mult un refresh.
+ * La oprire, store-ul este scris in snapshot-path, pentru o repornire fara incarcare din baza de date.
+ * Pana la terminarea incarcarii (isReady() == false) citirile raman pe ItemRepository.
+ */
+@Repository
+public class CompactItemRepository {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(CompactItemRepository.class);
+
+    private final ItemRepository itemRepository;
+    private final ChangeSeqHorizon changeSeqHorizon;
+    private final boolean enabled;
+    private final boolean offHeap;
+    private final Path snapshotPath;
+    private final long refreshMs;
+    private final long reconcileMs;
+    private final long deleteCheckMs;
+    private final int pageSize;
+    private final Timer refreshTimer;
+
+    private volatile CompactItemStore store;
+    private ScheduledExecutorService refresher;
+
+    public CompactItemRepository(ItemRepository itemRepository,
+                                 ChangeSeqHorizon changeSeqHorizon,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${items.store.compact.enabled:false}") boolean enabled,
+                                 @Value("${items.store.compact.off-heap:true}") boolean offHeap,
+                                 @Value("${items.store.compact.snapshot-path:}") String snapshotPath,
+                                 @Value("${items.store.compact.refresh-ms:200}") long refreshMs,
+                                 @Value("${items.store.compact.reconcile-ms:600000}") long reconcileMs,
+                                 @Value("${items.store.compact.delete-check-ms:1000}") long deleteCheckMs,
+                                 @Value("${items.store.compact.page-size:1000}") int pageSize) {
+        if (refreshMs <= 0 || deleteCheckMs <= 0 || pageSize <= 0) {
+            throw new IllegalArgumentException("items.store.compact.refresh-ms, items.store.compact.delete-check-ms " +
+                    "and items.store.compact.page-size must be positive");
+        }
+        if (reconcileMs < 0) {
+            throw new IllegalArgumentException("items.store.compact.reconcile-ms must not be negative");
+        }
+        this.itemRepository = itemRepository;
+        this.changeSeqHorizon = changeSeqHorizon;
+        this.enabled = enabled;
+        this.offHeap = offHeap;
+        this.snapshotPath = snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+        this.refreshMs = refreshMs;
+        this.reconcileMs = reconcileMs;
+        this.deleteCheckMs = deleteCheckMs;
+        this.pageSize = pageSize;
+
+        this.refreshTimer = Timer.builder("items.store.refresh")
+                .description("Time to apply new changes from the database to the compact item store")
+                .register(meterRegistry);
+        Gauge.builder("items.store.size", this, repository -> repository.store == null ? 0 : repository.store.size())
+                .description("Items held by the compact item store")
+                .register(meterRegistry);
+        Gauge.builder("items.store.bytes", this, repository -> repository.store == null ? 0 : repository.store.memoryBytes())
+                .description("Memory reserved by the compact item store")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return store != null;
+    }
+
+    public Optional<Item> findById(long id) {
+        return Optional.ofNullable(store.get(id));
+    }
+
+    public List<Item> findPage(ItemFilter filter, long afterId, int limit) {
+        return store.findPage(filter, afterId, limit);
+    }
+
+    // starea salvata, dupa commit; o stare mai veche decat cea din store este ignorata
+    public void put(Item item) {
+        CompactItemStore current = store;
+        if (current != null) {
+            current.put(item);
+        }
+    }
+
+    public void remove(long id) {
+        CompactItemStore current = store;
+        if (current != null) {
+            current.remove(id);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+
+        CompactItemStore loaded = readSnapshot();
+        if (loaded != null && loaded.getLastChangeSeq() > itemRepository.findMaxChangeSeq()) {
+            // baza de date este mai veche decat snapshot-ul (de exemplu a fost recreata), deci snapshot-ul nu mai este valid
+            LOGGER.warn("Snapshot {} is ahead of the database, loading the item store from scratch", snapshotPath);
+            loaded = null;
+        }
+        if (loaded == null) {
+            loaded = new CompactItemStore(offHeap, (int) itemRepository.count());
+        }
+
+        catchUp(loaded);
+        removeDeleted(loaded, true);
+        store = loaded;
+
+        LOGGER.info("Compact item store loaded {} items ({} KB {}) in {} ms", loaded.size(), loaded.memoryBytes() / 1024,
+                offHeap ? "off-heap" : "on heap", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "item-store-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, refreshMs, refreshMs, TimeUnit.MILLISECONDS);
+        // pe acelasi thread, deci nu ruleaza in paralel cu un refresh
+        refresher.scheduleWithFixedDelay(this::checkDeleted, deleteCheckMs, deleteCheckMs, TimeUnit.MILLISECONDS);
+        if (reconcileMs > 0) {
+            refresher.scheduleWithFixedDelay(this::reconcile, reconcileMs, reconcileMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+        if (store != null && snapshotPath != null) {
+            try {
+                Path parent = snapshotPath.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                store.writeSnapshot(snapshotPath);
+                LOGGER.info("Compact item store snapshot written to {} ({} items)", snapshotPath, store.size());
+            }
+            catch (IOException e) {
+                LOGGER.error("Could not write compact item store snapshot to {}", snapshotPath, e);
+            }
+        }
+    }
+
+    private void refresh() {
+        try {
+            refreshTimer.record(() -> catchUp(store));
+        }
+        catch (Exception e) {
+            // o eroare trecatoare nu opreste refresh-urile urmatoare
+            LOGGER.error("Error while refreshing the compact item store", e);
+        }
+    }
+
+    private void checkDeleted() {
+        try {
+            removeDeleted(store, false);
+        }
+        catch (Exception e) {
+            LOGGER.error("Error while checking the compact item store for deleted items", e);
+        }
+    }
+
+    // compara toate item-ele din tabela cu store-ul, pagina cu pagina dupa id, si rescrie doar cele diferite;
+    // put ignora o stare mai veche, deci o scriere facuta intre timp prin ItemService nu este data inapoi
+    private void reconcile() {
+        try {
+            CompactItemStore target = store;
+            int updated = 0;
+            long afterId = 0;
+            List<Item> page;
+            do {
+                page = itemRepository.findPage(ItemFilter.NONE, afterId, pageSize);
+                for (Item item : page) {
+                    Item stored = target.get(item.getId());
+                    if ((stored == null || !Objects.equals(stored.getVersion(), item.getVersion())
+                            || !Objects.equals(stored.getChangeSeq(), item.getChangeSeq())) && target.put(item)) {
+                        updated++;
+                    }
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == pageSize);
+            removeDeleted(target, true);
+
+            if (updated > 0) {
+                LOGGER.warn("Compact item store reconciliation updated {} items missed by the change feed", updated);
+            }
+        }
+        catch (Exception e) {
+            LOGGER.error("Error while reconciling the compact item store", e);
+        }
+    }
+
+    // aplica modificarile din fluxul de modificari, pagina cu pagina, pana la limita stabila
+    private void catchUp(CompactItemStore target) {
+        long upTo = changeSeqHorizon.settledChangeSeq();
+        List<Item> changes;
+        do {
+            changes = itemRepository.findChangesBetween(target.getLastChangeSeq(), upTo, PageRequest.of(0, pageSize));
+            changes.forEach(target::put);
+            if (!changes.isEmpty()) {
+                target.advanceChangeSeq(changes.get(changes.size() - 1).getChangeSeq());
+            }
+        } while (changes.size() == pageSize);
+    }
+
+    // fara force, id-urile sunt comparate doar daca numarul sau suma id-urilor pana la cel mai mare id din store difera
+    // de tabela (un item inserat dupa o stergere nu ascunde stergerea, ca la o simpla comparatie a numarului);
+    // comparatia merge pe pagini de id-uri din tabela, iar fiecare id care lipseste este verificat inca o data,
+    // ca un item salvat intre timp sa nu fie scos din store
+    private void removeDeleted(CompactItemStore target, boolean force) {
+        if (!force && target.idChecksum().equals(itemRepository.findIdChecksum(target.maxId()))) {
+            return;
+        }
+        List<Long> missing = new ArrayList<>();
+        long afterId = 0;
+        List<Long> page;
+        do {
+            page = itemRepository.findIdsAfter(afterId, PageRequest.of(0, pageSize));
+            long[] liveIds = page.stream().mapToLong(Long::longValue).toArray();
+            // ultima pagina acopera si id-urile din store mai mari decat orice id din tabela
+            long upToId = page.size() == pageSize ? liveIds[liveIds.length - 1] : Long.MAX_VALUE;
+            missing.addAll(target.idsNotIn(afterId, upToId, liveIds));
+            afterId = upToId;
+        } while (page.size() == pageSize);
+        if (missing.isEmpty()) {
+            return;
+        }
+        missing.removeAll(itemRepository.findExistingIds(missing));
+        missing.forEach(target::remove);
+        LOGGER.debug("Removed {} deleted items from the compact item store", missing.size());
+    }
+
+    private CompactItemStore readSnapshot() {
+        if (snapshotPath == null || !Files.exists(snapshotPath)) {
+            return null;
+        }
+        try {
+            return CompactItemStore.readSnapshot(snapshotPath, offHeap);
+        }
+        catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not read compact item store snapshot {}, loading from the database", snapshotPath, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,604 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.Item;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Copie compacta in memorie a tabelei de item-e, pentru citiri fara JPA (vezi CompactItemRepository).
+ * Fiecare item ocupa o inregistrare de lungime fixa intr-un ByteBuffer (id, versiune, changeSeq, status, pozitia
+ * textului), iar name, description si email sunt scrise UTF-8 intr-un al doilea ByteBuffer. Cu offHeap ambele
+ * buffere sunt directe, deci in afara heap-ului. Statusurile sunt internate: inregistrarea tine doar un cod.
+ * Id-ul duce la inregistrare printr-un LongIntHashMap, iar paginarea pe id foloseste un long[] sortat.
+ * Obiectele Item sunt create doar la citire, pentru item-ele intoarse.
+ * Citirile ruleaza in paralel sub read lock; scrierile iau write lock.
+ */
+public final class CompactItemStore {
+
+    // pozitiile campurilor intr-o inregistrare
+    private static final int ID = 0;
+    private static final int VERSION = 8;
+    private static final int CHANGE_SEQ = 16;
+    private static final int TEXT_OFFSET = 24;
+    private static final int TEXT_LENGTH = 28;
+    private static final int STATUS = 32;
+    private static final int RECORD_BYTES = 40;
+
+    // valoarea scrisa pentru versiune sau changeSeq null
+    private static final long NONE = Long.MIN_VALUE;
+    private static final int NULL_TEXT = -1;
+
+    // textul se rescrie fara zonele nefolosite cand acestea ajung la jumatate, peste acest prag
+    private static final int MIN_TEXT_COMPACTION_BYTES = 64 * 1024;
+
+    private static final int SNAPSHOT_MAGIC = 0x49544D53;
+    private static final int SNAPSHOT_FORMAT = 1;
+
+    private final boolean offHeap;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongIntHashMap index;
+
+    private ByteBuffer records;
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private ByteBuffer text;
+    private int textEnd;
+    private int textGarbage;
+
+    // id-urile in ordine crescatoare; cele sterse raman aici pana la urmatoarea compactare
+    private long[] sortedIds = new long[16];
+    private int sortedSize;
+    private int staleSortedIds;
+    // suma id-urilor din store, comparata cu tabela pentru a observa stergerile (vezi idChecksum)
+    private long idSum;
+
+    // codul 0 inseamna status null
+    private final List<String> statuses = new ArrayList<>(List.of(""));
+    private final Map<String, Short> statusCodes = new HashMap<>();
+
+    private long lastChangeSeq;
+
+    public CompactItemStore(boolean offHeap, int expectedSize) {
+        this.offHeap = offHeap;
+        int capacity = Math.max(expectedSize, 16);
+        this.index = new LongIntHashMap(capacity);
+        this.records = allocate(capacity * RECORD_BYTES);
+        this.text = allocate(capacity * 64);
+    }
+
+    /**
+     * Adauga sau inlocuieste item-ul. O stare mai veche decat cea existenta (versiune mai mica, sau aceeasi versiune
+     * cu un changeSeq mai mic) este ignorata, asa ca ordinea in care sosesc actualizarile nu conteaza.
+     *
+     * @return false daca item-ul a fost ignorat ca fiind mai vechi
+     */
+    public boolean put(Item item) {
+        long id = item.getId();
+        long version = orNone(item.getVersion());
+        long changeSeq = orNone(item.getChangeSeq());
+        byte[] encoded = encodeText(item);
+
+        lock.writeLock().lock();
+        try {
+            int slot = index.get(id);
+            if (slot != LongIntHashMap.MISSING) {
+                long storedVersion = records.getLong(offset(slot) + VERSION);
+                long storedChangeSeq = records.getLong(offset(slot) + CHANGE_SEQ);
+                if (version < storedVersion || (version == storedVersion && changeSeq != NONE && changeSeq < storedChangeSeq)) {
+                    return false;
+                }
+                // o scriere fara changeSeq (sau cu unul vechi) nu il da inapoi pe cel cunoscut
+                changeSeq = Math.max(changeSeq, storedChangeSeq);
+                textGarbage += records.getInt(offset(slot) + TEXT_LENGTH);
+            }
+            else {
+                slot = allocateSlot();
+                index.put(id, slot);
+                addSortedId(id);
+                idSum += id;
+            }
+
+            int textOffset = appendText(encoded, 0, encoded.length, null);
+            writeRecord(slot, id, version, changeSeq, intern(item.getStatus()), textOffset, encoded.length);
+            compactTextIfNeeded();
+            return true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int slot = index.remove(id);
+            if (slot == LongIntHashMap.MISSING) {
+                return false;
+            }
+            textGarbage += records.getInt(offset(slot) + TEXT_LENGTH);
+            releaseSlot(slot);
+            idSum -= id;
+            staleSortedIds++;
+            compactSortedIdsIfNeeded();
+            return true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Id-urile din store cu afterId < id <= upToId care lipsesc din liveIds (sortat crescator), adica item-ele care
+     * par sterse. Cu un interval pentru fiecare pagina de id-uri din tabela, nu trebuie citite toate deodata.
+     */
+    public List<Long> idsNotIn(long afterId, long upToId, long[] liveIds) {
+        List<Long> missing = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int position = Arrays.binarySearch(sortedIds, 0, sortedSize, afterId);
+            position = position >= 0 ? position + 1 : -position - 1;
+            for (int i = position; i < sortedSize && sortedIds[i] <= upToId; i++) {
+                long id = sortedIds[i];
+                if (index.containsKey(id) && Arrays.binarySearch(liveIds, id) < 0) {
+                    missing.add(id);
+                }
+            }
+            return missing;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Item get(long id) {
+        lock.readLock().lock();
+        try {
+            int slot = index.get(id);
+            return slot == LongIntHashMap.MISSING ? null : readItem(slot);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aceeasi semantica ca ItemRepositoryCustom.findPage: item-ele care respecta filtrul, cu id mai mare decat afterId,
+     * in ordinea id-urilor. Filtrul pe email compara octetii UTF-8 direct din buffer, fara sa decodeze textul.
+     */
+    public List<Item> findPage(ItemFilter filter, long afterId, int limit) {
+        byte[] email = filter.email() == null ? null : filter.email().getBytes(StandardCharsets.UTF_8);
+
+        lock.readLock().lock();
+        try {
+            short status = 0;
+            if (filter.status() != null) {
+                Short code = statusCodes.get(filter.status());
+                if (code == null) {
+                    return List.of();
+                }
+                status = code;
+            }
+
+            int position = Arrays.binarySearch(sortedIds, 0, sortedSize, afterId);
+            position = position >= 0 ? position + 1 : -position - 1;
+
+            List<Item> page = new ArrayList<>(Math.min(limit, 256));
+            for (int i = position; i < sortedSize && page.size() < limit; i++) {
+                int slot = index.get(sortedIds[i]);
+                if (slot == LongIntHashMap.MISSING) {
+                    continue;
+                }
+                if (status != 0 && records.getShort(offset(slot) + STATUS) != status) {
+                    continue;
+                }
+                if (email != null && !emailEquals(slot, email)) {
+                    continue;
+                }
+                page.add(readItem(slot));
+            }
+            return page;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // pozitia in fluxul de modificari pana la care store-ul este la zi; citirea urmatoare se reia de aici
+    /**
+     * Cel mai mare id din store (0 daca este gol); poate fi al unui item deja scos.
+     */
+    public long maxId() {
+        lock.readLock().lock();
+        try {
+            return sortedSize == 0 ? 0 : sortedIds[sortedSize - 1];
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Numarul si suma id-urilor din store, de comparat cu ItemRepository.findIdChecksum(maxId()): o stergere
+     * schimba rezultatul chiar daca intre timp a fost adaugat alt item, deci numarul de item-e ramane acelasi.
+     */
+    public IdChecksum idChecksum() {
+        lock.readLock().lock();
+        try {
+            return new IdChecksum(index.size(), idSum);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getLastChangeSeq() {
+        lock.readLock().lock();
+        try {
+            return lastChangeSeq;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void advanceChangeSeq(long changeSeq) {
+        lock.writeLock().lock();
+        try {
+            lastChangeSeq = Math.max(lastChangeSeq, changeSeq);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // memoria rezervata de store (buffere si indecsi), inclusiv spatiul inca nefolosit
+    public long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) records.capacity() + text.capacity() + index.memoryBytes()
+                    + (long) sortedIds.length * Long.BYTES + (long) freeSlots.length * Integer.BYTES;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scrie toate item-ele intr-un fisier mapat in memorie. Fisierul este scris alaturi si apoi mutat peste cel vechi,
+     * asa ca un snapshot intrerupt nu il strica pe cel existent.
+     */
+    public void writeSnapshot(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+        lock.readLock().lock();
+        try {
+            long size = 4 + 4 + 8 + 4;
+            List<byte[]> statusBytes = new ArrayList<>(statuses.size());
+            for (String status : statuses) {
+                byte[] bytes = status.getBytes(StandardCharsets.UTF_8);
+                statusBytes.add(bytes);
+                size += 4 + bytes.length;
+            }
+            size += 4;
+            for (int i = 0; i < sortedSize; i++) {
+                int slot = index.get(sortedIds[i]);
+                if (slot != LongIntHashMap.MISSING) {
+                    size += RECORD_BYTES + records.getInt(offset(slot) + TEXT_LENGTH);
+                }
+            }
+
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                out.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_FORMAT).putLong(lastChangeSeq);
+                out.putInt(statusBytes.size());
+                for (byte[] bytes : statusBytes) {
+                    out.putInt(bytes.length).put(bytes);
+                }
+                out.putInt(index.size());
+                for (int i = 0; i < sortedSize; i++) {
+                    int slot = index.get(sortedIds[i]);
+                    if (slot == LongIntHashMap.MISSING) {
+                        continue;
+                    }
+                    int base = offset(slot);
+                    int textLength = records.getInt(base + TEXT_LENGTH);
+                    out.putLong(records.getLong(base + ID))
+                            .putLong(records.getLong(base + VERSION))
+                            .putLong(records.getLong(base + CHANGE_SEQ))
+                            .putShort(records.getShort(base + STATUS))
+                            .putInt(textLength);
+                    out.put(out.position(), text, records.getInt(base + TEXT_OFFSET), textLength);
+                    out.position(out.position() + textLength);
+                }
+                out.force();
+            }
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reface un store dintr-un fisier scris de writeSnapshot. Textul fiecarui item este copiat direct din fisierul
+     * mapat, fara sa fie decodat.
+     */
+    public static CompactItemStore readSnapshot(Path path, boolean offHeap) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.remaining() < 16 || in.getInt() != SNAPSHOT_MAGIC || in.getInt() != SNAPSHOT_FORMAT) {
+                throw new IOException("Not an item store snapshot: " + path);
+            }
+            long lastChangeSeq = in.getLong();
+
+            int statusCount = in.getInt();
+            List<String> statuses = new ArrayList<>(statusCount);
+            for (int i = 0; i < statusCount; i++) {
+                byte[] bytes = new byte[in.getInt()];
+                in.get(bytes);
+                statuses.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+
+            int count = in.getInt();
+            CompactItemStore store = new CompactItemStore(offHeap, count);
+            // codurile din fisier raman aceleasi: statusurile sunt internate in aceeasi ordine, dupa codul 0 (null)
+            for (String status : statuses.subList(1, statuses.size())) {
+                store.intern(status);
+            }
+            for (int i = 0; i < count; i++) {
+                long id = in.getLong();
+                long version = in.getLong();
+                long changeSeq = in.getLong();
+                short status = in.getShort();
+                int textLength = in.getInt();
+
+                int slot = store.allocateSlot();
+                store.index.put(id, slot);
+                store.addSortedId(id);
+                store.idSum += id;
+                int textOffset = store.appendText(null, in.position(), textLength, in);
+                store.writeRecord(slot, id, version, changeSeq, status, textOffset, textLength);
+                in.position(in.position() + textLength);
+            }
+            store.lastChangeSeq = lastChangeSeq;
+            return store;
+        }
+    }
+
+    private Item readItem(int slot) {
+        int base = offset(slot);
+        int position = records.getInt(base + TEXT_OFFSET);
+
+        String name = readString(position);
+        position = skipString(position);
+        String description = readString(position);
+        position = skipString(position);
+        String email = readString(position);
+
+        short status = records.getShort(base + STATUS);
+        Item item = new Item(records.getLong(base + ID), name, description, status == 0 ? null : statuses.get(status), email);
+        item.setVersion(noneToNull(records.getLong(base + VERSION)));
+        item.setChangeSeq(noneToNull(records.getLong(base + CHANGE_SEQ)));
+        return item;
+    }
+
+    private boolean emailEquals(int slot, byte[] email) {
+        int position = records.getInt(offset(slot) + TEXT_OFFSET);
+        position = skipString(skipString(position));
+        int length = text.getInt(position);
+        if (length != email.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text.get(position + 4 + i) != email[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readString(int position) {
+        int length = text.getInt(position);
+        if (length == NULL_TEXT) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        text.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int skipString(int position) {
+        int length = text.getInt(position);
+        return position + 4 + Math.max(length, 0);
+    }
+
+    // name, description si email, fiecare ca lungime (-1 pentru null) urmata de octetii UTF-8
+    private static byte[] encodeText(Item item) {
+        byte[][] fields = {utf8(item.getName()), utf8(item.getDescription()), utf8(item.getEmail())};
+        int length = 0;
+        for (byte[] field : fields) {
+            length += 4 + (field == null ? 0 : field.length);
+        }
+        ByteBuffer encoded = ByteBuffer.allocate(length);
+        for (byte[] field : fields) {
+            if (field == null) {
+                encoded.putInt(NULL_TEXT);
+            }
+            else {
+                encoded.putInt(field.length).put(field);
+            }
+        }
+        return encoded.array();
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // copiaza textul fie dintr-un byte[], fie dintr-un alt buffer (la citirea unui snapshot)
+    private int appendText(byte[] bytes, int sourceOffset, int length, ByteBuffer source) {
+        if (textEnd + length > text.capacity()) {
+            text = grow(text, textEnd, Math.max(text.capacity() * 2, textEnd + length));
+        }
+        int offset = textEnd;
+        if (source == null) {
+            text.put(offset, bytes, sourceOffset, length);
+        }
+        else {
+            text.put(offset, source, sourceOffset, length);
+        }
+        textEnd += length;
+        return offset;
+    }
+
+    private void writeRecord(int slot, long id, long version, long changeSeq, short status, int textOffset, int textLength) {
+        int base = offset(slot);
+        records.putLong(base + ID, id)
+                .putLong(base + VERSION, version)
+                .putLong(base + CHANGE_SEQ, changeSeq)
+                .putInt(base + TEXT_OFFSET, textOffset)
+                .putInt(base + TEXT_LENGTH, textLength)
+                .putShort(base + STATUS, status);
+    }
+
+    private short intern(String status) {
+        if (status == null) {
+            return 0;
+        }
+        Short code = statusCodes.get(status);
+        if (code != null) {
+            return code;
+        }
+        if (statuses.size() > Short.MAX_VALUE) {
+            throw new IllegalStateException("Too many distinct item statuses");
+        }
+        short next = (short) statuses.size();
+        statuses.add(status);
+        statusCodes.put(status, next);
+        return next;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if ((slotCount + 1) * RECORD_BYTES > records.capacity()) {
+            records = grow(records, slotCount * RECORD_BYTES, records.capacity() * 2);
+        }
+        return slotCount++;
+    }
+
+    private void releaseSlot(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    // id-urile noi sunt de obicei mai mari decat toate cele existente, deci se adauga la final
+    private void addSortedId(long id) {
+        int position = sortedSize;
+        if (sortedSize > 0 && id <= sortedIds[sortedSize - 1]) {
+            position = Arrays.binarySearch(sortedIds, 0, sortedSize, id);
+            if (position >= 0) {
+                // id-ul sters anterior era inca in lista
+                staleSortedIds--;
+                return;
+            }
+            position = -position - 1;
+        }
+        if (sortedSize == sortedIds.length) {
+            sortedIds = Arrays.copyOf(sortedIds, sortedSize * 2);
+        }
+        System.arraycopy(sortedIds, position, sortedIds, position + 1, sortedSize - position);
+        sortedIds[position] = id;
+        sortedSize++;
+    }
+
+    private void compactSortedIdsIfNeeded() {
+        if (staleSortedIds < 16 || staleSortedIds * 2 < sortedSize) {
+            return;
+        }
+        int live = 0;
+        for (int i = 0; i < sortedSize; i++) {
+            if (index.containsKey(sortedIds[i])) {
+                sortedIds[live++] = sortedIds[i];
+            }
+        }
+        sortedSize = live;
+        staleSortedIds = 0;
+    }
+
+    // dupa multe actualizari, textul vechi ocupa jumatate din buffer; se copiaza doar textul item-elor existente
+    private void compactTextIfNeeded() {
+        if (textEnd < MIN_TEXT_COMPACTION_BYTES || textGarbage * 2 < textEnd) {
+            return;
+        }
+        ByteBuffer compacted = allocate(Math.max(textEnd - textGarbage, 16) * 2);
+        int end = 0;
+        for (int i = 0; i < sortedSize; i++) {
+            int slot = index.get(sortedIds[i]);
+            if (slot == LongIntHashMap.MISSING) {
+                continue;
+            }
+            int base = offset(slot);
+            int length = records.getInt(base + TEXT_LENGTH);
+            compacted.put(end, text, records.getInt(base + TEXT_OFFSET), length);
+            records.putInt(base + TEXT_OFFSET, end);
+            end += length;
+        }
+        text = compacted;
+        textEnd = end;
+        textGarbage = 0;
+    }
+
+    private ByteBuffer grow(ByteBuffer buffer, int used, int capacity) {
+        ByteBuffer grown = allocate(capacity);
+        grown.put(0, buffer, 0, used);
+        return grown;
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return offHeap ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private static int offset(int slot) {
+        return slot * RECORD_BYTES;
+    }
+
+    private static long orNone(Long value) {
+        return value == null ? NONE : value;
+    }
+
+    private static Long noneToNull(long value) {
+        return value == NONE ? null : value;
+    }
+}
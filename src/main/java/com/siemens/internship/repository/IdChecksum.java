@@ -0,0 +1,7 @@
+package com.siemens.internship.repository;
+
+/**
+ * Numarul si suma unui set de id-uri; doua seturi cu acelasi rezultat sunt, in practica, aceleasi.
+ */
+public record IdChecksum(long count, long idSum) {
+}
@@ -0,0 +1,7 @@
+package com.siemens.internship.repository;
+
+/**
+ * Id-ul unui item si numarul de ordine al ultimei lui modificari, pentru paginarea pe change_seq.
+ */
+public record ItemChange(long id, long changeSeq) {
+}
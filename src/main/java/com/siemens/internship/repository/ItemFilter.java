@@ -0,0 +1,10 @@
+package com.siemens.internship.repository;
+
+/**
+ * Filtrele optionale pentru listarea item-elor; un camp null inseamna "fara filtru" pe acel camp.
+ * Ambele coloane sunt indexate (vezi Item).
+ */
+public record ItemFilter(String status, String email) {
+
+    public static final ItemFilter NONE = new ItemFilter(null, null);
+}
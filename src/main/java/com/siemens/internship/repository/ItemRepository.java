@@ -1,12 +1,97 @@
 package com.siemens.internship.repository;
 
 import com.siemens.internship.model.Item;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
     @Query("SELECT id FROM Item")
     List<Long> findAllIds();
+
+    // urmatorul lot de id-uri dupa afterId (paginare pe cheie), astfel nu se incarca toate id-urile in memorie
+    @Query("SELECT i.id FROM Item i WHERE i.id > :afterId ORDER BY i.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // la fel, dar doar pentru item-ele cu statusul dat; foloseste indexul (status, id)
+    @Query("SELECT i.id FROM Item i WHERE i.status = :status AND i.id > :afterId ORDER BY i.id")
+    List<Long> findIdsByStatusAfter(@Param("status") String status, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT i.id FROM Item i WHERE i.status = :status")
+    List<Long> findIdsByStatus(@Param("status") String status);
+
+    // la fel ca findIdsByStatusAfter, dar doar pana la upToId inclusiv (o partitie de id-uri)
+    @Query("SELECT i.id FROM Item i WHERE i.status = :status AND i.id > :afterId AND i.id <= :upToId ORDER BY i.id")
+    List<Long> findIdsByStatusBetween(@Param("status") String status,
+                                      @Param("afterId") long afterId,
+                                      @Param("upToId") long upToId,
+                                      Pageable pageable);
+
+    // partitiile de id-uri (vezi ProcessingLease) care au item-e cu statusul dat
+    @Query("SELECT DISTINCT (i.id - 1) / :partitionSize FROM Item i WHERE i.status = :status")
+    List<Long> findPartitionsWithStatus(@Param("status") String status, @Param("partitionSize") long partitionSize);
+
+    // item-ele din lot care au inca statusul dat, blocate pana la finalul tranzactiei
+    // ca o alta procesare sa nu le poata schimba intre citire si UPDATE
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Item> findByIdInAndStatus(Collection<Long> ids, String status);
+
+    // item-ele cu id-urile date, blocate pana la finalul tranzactiei, ca versiunea comparata sa fie cea suprascrisa
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Item> findByIdIn(Collection<Long> ids);
+
+    // aceeasi selectie fara blocare, pentru citirea item-elor inainte de pasii CPU ai procesarii
+    List<Item> readByIdInAndStatus(Collection<Long> ids, String status);
+
+    // schimba statusul doar pentru randurile care au inca statusul "from" si returneaza cate randuri s-au modificat;
+    // se scrie doar coloana status (plus versiunea), nu toata entitatea
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Item i SET i.status = :to, i.version = COALESCE(i.version, 0) + 1 " +
+            "WHERE i.id IN :ids AND i.status = :from")
+    int transitionStatus(@Param("ids") Collection<Long> ids, @Param("from") String from, @Param("to") String to);
+
+    // toate item-ele citite incremental din cursorul JDBC; trebuie consumat intr-o tranzactie
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT i FROM Item i ORDER BY i.id")
+    Stream<Item> streamAllOrderById();
+
+    // item-ele modificate dupa since, in ordinea modificarilor (fluxul de modificari); foloseste indexul (change_seq)
+    @Query("SELECT i FROM Item i WHERE i.changeSeq > :since ORDER BY i.changeSeq")
+    List<Item> findChangesAfter(@Param("since") long since, Pageable pageable);
+
+    // la fel, dar doar pana la upTo inclusiv (limita data de ChangeSeqHorizon)
+    @Query("SELECT i FROM Item i WHERE i.changeSeq > :since AND i.changeSeq <= :upTo ORDER BY i.changeSeq")
+    List<Item> findChangesBetween(@Param("since") long since, @Param("upTo") long upTo, Pageable pageable);
+
+    // numarul de ordine al ultimei modificari vizibile, 0 daca tabela este goala
+    @Query("SELECT COALESCE(MAX(i.changeSeq), 0) FROM Item i")
+    long findMaxChangeSeq();
+
+    // item-ele cu statusul dat modificate in intervalul (after, upTo], in ordinea modificarilor;
+    // foloseste indexul (status, change_seq)
+    @Query("SELECT new com.siemens.internship.repository.ItemChange(i.id, i.changeSeq) FROM Item i " +
+            "WHERE i.status = :status AND i.changeSeq > :after AND i.changeSeq <= :upTo ORDER BY i.changeSeq")
+    List<ItemChange> findChangesByStatusBetween(@Param("status") String status,
+                                                @Param("after") long after,
+                                                @Param("upTo") long upTo,
+                                                Pageable pageable);
+
+    // numarul si suma id-urilor pana la maxId inclusiv, comparate cu CompactItemStore.idChecksum()
+    @Query("SELECT new com.siemens.internship.repository.IdChecksum(COUNT(i), COALESCE(SUM(i.id), 0L)) FROM Item i WHERE i.id <= :maxId")
+    IdChecksum findIdChecksum(@Param("maxId") long maxId);
+
+    // dintre id-urile date, doar cele care exista in baza de date
+    @Query("SELECT i.id FROM Item i WHERE i.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
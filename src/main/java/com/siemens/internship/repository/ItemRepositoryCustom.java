@@ -0,0 +1,26 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.Item;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interogari pe item-e care nu pot fi exprimate ca metode derivate in ItemRepository.
+ */
+public interface ItemRepositoryCustom {
+
+    // campurile care pot fi cerute intr-o proiectie
+    List<String> PROJECTABLE_FIELDS = List.of("id", "name", "description", "status", "email");
+
+    /**
+     * O pagina de item-e care respecta filtrul, cu id mai mare decat afterId, ordonate dupa id (paginare pe cheie).
+     */
+    List<Item> findPage(ItemFilter filter, long afterId, int limit);
+
+    /**
+     * La fel ca findPage, dar citeste din baza de date doar coloanele cerute.
+     * Fiecare rand este intors ca map camp -> valoare, in ordinea campurilor cerute.
+     */
+    List<Map<String, Object>> findPageProjected(ItemFilter filter, long afterId, int limit, List<String> fields);
+}
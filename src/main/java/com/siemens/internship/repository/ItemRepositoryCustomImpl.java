@@ -0,0 +1,77 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.Item;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Item> findPage(ItemFilter filter, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Item> query = cb.createQuery(Item.class);
+        Root<Item> root = query.from(Item.class);
+
+        query.select(root)
+                .where(predicates(cb, root, filter, afterId))
+                .orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Map<String, Object>> findPageProjected(ItemFilter filter, long afterId, int limit, List<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Item> root = query.from(Item.class);
+
+        // se selecteaza doar coloanele cerute, nu toata entitatea
+        List<Selection<?>> selections = fields.stream()
+                .<Selection<?>>map(field -> root.get(field).alias(field))
+                .toList();
+
+        query.multiselect(selections)
+                .where(predicates(cb, root, filter, afterId))
+                .orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(tuple -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    fields.forEach(field -> row.put(field, tuple.get(field)));
+                    return row;
+                })
+                .toList();
+    }
+
+    // conditia de paginare plus filtrele (egalitate pe coloane indexate)
+    private Predicate[] predicates(CriteriaBuilder cb, Root<Item> root, ItemFilter filter, long afterId) {
+        List<Predicate> predicates = new ArrayList<>(3);
+        predicates.add(cb.greaterThan(root.get("id"), afterId));
+        if (filter.status() != null) {
+            predicates.add(cb.equal(root.get("status"), filter.status()));
+        }
+        if (filter.email() != null) {
+            predicates.add(cb.equal(root.get("email"), filter.email()));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+}
@@ -0,0 +1,124 @@
+package com.siemens.internship.repository;
+
+/**
+ * Tabela de dispersie cu adresare deschisa (sondare liniara) de la chei long pozitive la valori int,
+ * fara obiecte Long sau intrari alocate pentru fiecare cheie. Cheia 0 marcheaza o pozitie libera.
+ * Stergerea muta inapoi intrarile urmatoare din acelasi grup, deci nu lasa marcaje de stergere.
+ * Nu este sincronizata; CompactItemStore o acceseaza sub lock.
+ */
+final class LongIntHashMap {
+
+    static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(long key) {
+        int index = slot(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    boolean containsKey(long key) {
+        return get(key) != MISSING;
+    }
+
+    void put(long key, int value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Keys must be positive: " + key);
+        }
+        int index = slot(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+
+        // factor de incarcare de cel mult 0.5, ca grupurile parcurse la cautare sa ramana scurte
+        if (++size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+    }
+
+    int remove(long key) {
+        int index = slot(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                int value = values[index];
+                shiftBack(index);
+                size--;
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    long memoryBytes() {
+        return (long) keys.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    // muta inapoi intrarile care ar deveni inaccesibile dupa golirea pozitiei free
+    private void shiftBack(int free) {
+        int index = free;
+        while (true) {
+            index = (index + 1) & mask;
+            if (keys[index] == 0) {
+                break;
+            }
+            int home = slot(keys[index]);
+            // intrarea ramane pe loc daca pozitia ei ideala este intre free (exclusiv) si index (inclusiv), circular
+            boolean reachable = free <= index ? (free < home && home <= index) : (free < home || home <= index);
+            if (!reachable) {
+                keys[free] = keys[index];
+                values[free] = values[index];
+                free = index;
+            }
+        }
+        keys[free] = 0;
+    }
+
+    private int slot(long key) {
+        // amestecarea bitilor (Fibonacci hashing) imprastie id-urile consecutive
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,51 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ProcessingJob;
+import com.siemens.internship.model.ProcessingJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProcessingJobRepository extends JpaRepository<ProcessingJob, Long> {
+    List<ProcessingJob> findByStatus(ProcessingJobStatus status);
+
+    // adauga progresul unui lot fara read-modify-write, deoarece loturile aceluiasi job se termina in paralel;
+    // checkpoint-ul doar creste, chiar daca actualizarile ajung in alta ordine
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET " +
+            "j.checkpointId = CASE WHEN :checkpointId > j.checkpointId THEN :checkpointId ELSE j.checkpointId END, " +
+            "j.processedCount = j.processedCount + :processed, " +
+            "j.failedCount = j.failedCount + :failed, " +
+            "j.updatedAt = :now " +
+            "WHERE j.id = :id")
+    int addProgress(@Param("id") Long id,
+                    @Param("checkpointId") long checkpointId,
+                    @Param("processed") int processed,
+                    @Param("failed") int failed,
+                    @Param("now") Instant now);
+
+    // preia un job RUNNING doar daca este deja al acestei instante sau daca owner-ul nu a mai dat semn de viata
+    // de la staleBefore; doua instante care pornesc in acelasi timp nu pot prelua amandoua acelasi job
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.owner = :owner, j.updatedAt = :now " +
+            "WHERE j.id = :id AND j.status = com.siemens.internship.model.ProcessingJobStatus.RUNNING " +
+            "AND (j.owner = :owner OR j.updatedAt IS NULL OR j.updatedAt < :staleBefore)")
+    int claimForResume(@Param("id") Long id,
+                       @Param("owner") String owner,
+                       @Param("now") Instant now,
+                       @Param("staleBefore") Instant staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.updatedAt = :now " +
+            "WHERE j.id IN :ids AND j.owner = :owner AND j.status = com.siemens.internship.model.ProcessingJobStatus.RUNNING")
+    int heartbeat(@Param("ids") Collection<Long> ids, @Param("owner") String owner, @Param("now") Instant now);
+}
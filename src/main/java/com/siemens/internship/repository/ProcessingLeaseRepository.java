@@ -0,0 +1,47 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ProcessingLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Operatiile pe lease-uri sunt UPDATE-uri conditionate: doar o instanta poate gasi randul liber,
+ * deci nu este nevoie de blocari explicite si functioneaza la fel pe orice baza de date.
+ */
+public interface ProcessingLeaseRepository extends JpaRepository<ProcessingLease, Long> {
+
+    // ia partitia daca este libera sau lease-ul a expirat; 1 daca a reusit, 0 daca o tine alta instanta
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingLease l SET l.owner = :owner, l.leasedUntil = :until " +
+            "WHERE l.partitionId = :partitionId AND (l.owner IS NULL OR l.leasedUntil < :now)")
+    int claim(@Param("partitionId") long partitionId,
+              @Param("owner") String owner,
+              @Param("until") Instant until,
+              @Param("now") Instant now);
+
+    // randul unei partitii noi, creat deja luat; INSERT simplu (nu merge), ca o a doua instanta sa fie respinsa
+    // de cheia primara in loc sa suprascrie lease-ul primeia
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO processing_lease (partition_id, owner, leased_until) VALUES (:partitionId, :owner, :until)",
+            nativeQuery = true)
+    int create(@Param("partitionId") long partitionId, @Param("owner") String owner, @Param("until") Instant until);
+
+    // prelungeste lease-ul doar daca este inca al acestei instante
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingLease l SET l.leasedUntil = :until WHERE l.partitionId = :partitionId AND l.owner = :owner")
+    int renew(@Param("partitionId") long partitionId, @Param("owner") String owner, @Param("until") Instant until);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingLease l SET l.owner = NULL, l.leasedUntil = NULL " +
+            "WHERE l.partitionId = :partitionId AND l.owner = :owner")
+    int release(@Param("partitionId") long partitionId, @Param("owner") String owner);
+}
@@ -0,0 +1,269 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.Item;
+import io.r2dbc.spi.Parameters;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aceleasi operatii pe tabela item ca ItemRepository, dar non-blocante, prin R2DBC.
+ * Tabela si secventa sunt cele create de Hibernate pentru Item, asa ca ambele variante lucreaza pe aceleasi date.
+ * Driverul r2dbc-h2 executa interogarile sincron, pe thread-ul care se aboneaza; de aceea fiecare operatie
+ * se aboneaza pe itemDatabaseScheduler si nu pe thread-urile Netty (vezi ReactiveConfig).
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemRepository {
+
+    private static final String COLUMNS = "id, name, description, status, email, version";
+
+    // coloana version poate fi NULL (randuri scrise in afara aplicatiei); "version = ?" nu s-ar potrivi niciodata cu ele,
+    // asa ca NULL este comparat ca -1, o valoare pe care versiunile reale nu o au
+    private static final String VERSION_MATCHES = "COALESCE(version, -1) = ";
+    private static final String NEXT_VERSION = "version = COALESCE(version, 0) + 1";
+
+    private final DatabaseClient databaseClient;
+    private final Scheduler scheduler;
+
+    public ReactiveItemRepository(DatabaseClient databaseClient, Scheduler itemDatabaseScheduler) {
+        this.databaseClient = databaseClient;
+        this.scheduler = itemDatabaseScheduler;
+    }
+
+    public Mono<Item> findById(long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM item WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveItemRepository::toItem)
+                .one()
+                .subscribeOn(scheduler);
+    }
+
+    public Mono<Boolean> existsById(long id) {
+        return databaseClient.sql("SELECT COUNT(*) FROM item WHERE id = :id")
+                .bind("id", id)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .map(count -> count > 0)
+                .subscribeOn(scheduler);
+    }
+
+    /**
+     * O pagina de item-e care respecta filtrul, cu id mai mare decat afterId, ordonate dupa id (paginare pe cheie).
+     */
+    public Flux<Item> findPage(ItemFilter filter, long afterId, int limit) {
+        return page(COLUMNS, filter, afterId, limit)
+                .map(ReactiveItemRepository::toItem)
+                .all()
+                .subscribeOn(scheduler);
+    }
+
+    /**
+     * La fel ca findPage, dar citeste doar coloanele cerute (din ItemRepositoryCustom.PROJECTABLE_FIELDS).
+     */
+    public Flux<Map<String, Object>> findPageProjected(ItemFilter filter, long afterId, int limit, List<String> fields) {
+        if (!ItemRepositoryCustom.PROJECTABLE_FIELDS.containsAll(fields)) {
+            return Flux.error(new IllegalArgumentException("Unknown fields " + fields));
+        }
+
+        return page(String.join(", ", fields), filter, afterId, limit)
+                .map(row -> {
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    for (int i = 0; i < fields.size(); i++) {
+                        result.put(fields.get(i), row.get(i));
+                    }
+                    return result;
+                })
+                .all()
+                .subscribeOn(scheduler);
+    }
+
+    // toate item-ele, in ordinea id-urilor; randurile sunt emise pe masura ce sunt cerute de abonat
+    public Flux<Item> findAllOrderById() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM item ORDER BY id")
+                .map(ReactiveItemRepository::toItem)
+                .all()
+                .subscribeOn(scheduler);
+    }
+
+    public Flux<Long> findIdsByStatus(String status) {
+        return databaseClient.sql("SELECT id FROM item WHERE status = :status ORDER BY id")
+                .bind("status", status)
+                .map(row -> row.get(0, Long.class))
+                .all()
+                .subscribeOn(scheduler);
+    }
+
+    // item-ele din lot care au inca statusul dat, fara blocare (verificarea se face la scriere, dupa versiune)
+    public Flux<Item> findByIdInAndStatus(List<Long> ids, String status) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM item WHERE id IN (:ids) AND status = :status")
+                .bind("ids", ids)
+                .bind("status", status)
+                .map(ReactiveItemRepository::toItem)
+                .all()
+                .subscribeOn(scheduler);
+    }
+
+    /**
+     * Insereaza un item nou cu versiunea 0 si il intoarce cu id-ul alocat.
+     * Hibernate foloseste fiecare valoare a secventei item_seq ca limita de sus a unui bloc de 50 de id-uri;
+     * aici se foloseste doar valoarea insasi, asa ca id-urile nu se suprapun niciodata cu cele alocate de Hibernate.
+     */
+    public Mono<Item> insert(Item item) {
+        return databaseClient.sql("SELECT NEXT VALUE FOR item_seq")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> bindFields(databaseClient.sql(
+                                "INSERT INTO item (" + COLUMNS + ") VALUES (:id, :name, :description, :status, :email, 0)")
+                                .bind("id", id), item)
+                        .fetch()
+                        .rowsUpdated()
+                        .map(rows -> {
+                            item.setId(id);
+                            item.setVersion(0L);
+                            return item;
+                        }))
+                .subscribeOn(scheduler);
+    }
+
+    /**
+     * Suprascrie item-ul doar daca versiunea din baza de date este cea din item (optimistic locking).
+     * Un item fara versiune (NULL) se potriveste doar cu un rand care nu are nici el versiune.
+     *
+     * @return item-ul cu versiunea noua, sau gol daca item-ul nu exista ori a fost modificat intre timp
+     */
+    public Mono<Item> update(Item item) {
+        return bindFields(databaseClient.sql("UPDATE item SET name = :name, description = :description, " +
+                        "status = :status, email = :email, " + NEXT_VERSION + " WHERE id = :id AND " + VERSION_MATCHES + ":version"), item)
+                .bind("id", item.getId())
+                .bind("version", versionOrSentinel(item))
+                .fetch()
+                .rowsUpdated()
+                .filter(rows -> rows == 1)
+                .map(rows -> {
+                    item.setVersion(nextVersion(item));
+                    return item;
+                })
+                .subscribeOn(scheduler);
+    }
+
+    public Mono<Long> deleteById(long id) {
+        return databaseClient.sql("DELETE FROM item WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .subscribeOn(scheduler);
+    }
+
+    /**
+     * Salveaza campurile calculate si statusul PROCESSED pentru item-ele date, intr-un singur batch de UPDATE-uri.
+     * Fiecare UPDATE este conditionat de status si de versiunea citita, ca un item modificat intre timp sa nu fie
+     * suprascris cu o stare veche; acele item-e raman NEPROCESAT.
+     *
+     * @return item-ele salvate, cu starea noua
+     */
+    public Flux<Item> markProcessed(List<Item> items) {
+        if (items.isEmpty()) {
+            return Flux.empty();
+        }
+
+        return databaseClient.inConnectionMany(connection -> {
+            Statement statement = connection.createStatement("UPDATE item SET name = $1, description = $2, email = $3, " +
+                    "status = $4, " + NEXT_VERSION + " WHERE id = $5 AND status = $6 AND " + VERSION_MATCHES + "$7");
+            for (int i = 0; i < items.size(); i++) {
+                if (i > 0) {
+                    statement.add();
+                }
+                Item item = items.get(i);
+                bind(statement, 0, item.getName());
+                bind(statement, 1, item.getDescription());
+                bind(statement, 2, item.getEmail());
+                statement.bind(3, Item.STATUS_PROCESSED)
+                        .bind(4, item.getId())
+                        .bind(5, Item.STATUS_NEPROCESAT)
+                        .bind(6, versionOrSentinel(item));
+            }
+
+            // cate un rezultat pentru fiecare UPDATE, in ordinea in care au fost adaugate
+            return Flux.from(statement.execute())
+                    .concatMap(Result::getRowsUpdated)
+                    .index()
+                    .filter(updated -> updated.getT2() == 1)
+                    .map(updated -> {
+                        Item item = items.get(updated.getT1().intValue());
+                        item.setStatus(Item.STATUS_PROCESSED);
+                        item.setVersion(nextVersion(item));
+                        return item;
+                    });
+        }).subscribeOn(scheduler);
+    }
+
+    private DatabaseClient.GenericExecuteSpec page(String columns, ItemFilter filter, long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns).append(" FROM item WHERE id > :afterId");
+        if (filter.status() != null) {
+            sql.append(" AND status = :status");
+        }
+        if (filter.email() != null) {
+            sql.append(" AND email = :email");
+        }
+        sql.append(" ORDER BY id LIMIT :limit");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                .bind("afterId", afterId)
+                .bind("limit", limit);
+        if (filter.status() != null) {
+            spec = spec.bind("status", filter.status());
+        }
+        if (filter.email() != null) {
+            spec = spec.bind("email", filter.email());
+        }
+        return spec;
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindFields(DatabaseClient.GenericExecuteSpec spec, Item item) {
+        return spec.bind("name", nullable(item.getName()))
+                .bind("description", nullable(item.getDescription()))
+                .bind("status", item.getStatus() == null ? Item.STATUS_NEPROCESAT : item.getStatus())
+                .bind("email", nullable(item.getEmail()));
+    }
+
+    // DatabaseClient nu accepta null direct, valoarea trebuie sa poarte tipul coloanei
+    private static Object nullable(String value) {
+        return value == null ? Parameters.in(String.class) : value;
+    }
+
+    private static long versionOrSentinel(Item item) {
+        return item.getVersion() == null ? -1 : item.getVersion();
+    }
+
+    // versiunea scrisa de NEXT_VERSION
+    private static long nextVersion(Item item) {
+        return item.getVersion() == null ? 1 : item.getVersion() + 1;
+    }
+
+    private static void bind(Statement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index, String.class);
+        }
+        else {
+            statement.bind(index, value);
+        }
+    }
+
+    private static Item toItem(Readable row) {
+        Item item = new Item(row.get("id", Long.class), row.get("name", String.class), row.get("description", String.class),
+                row.get("status", String.class), row.get("email", String.class));
+        item.setVersion(row.get("version", Long.class));
+        return item;
+    }
+}
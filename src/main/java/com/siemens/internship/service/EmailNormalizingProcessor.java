@@ -0,0 +1,26 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Aduce adresa de email la o forma canonica (fara spatii, cu litere mici), ca sa poata fi cautata exact.
+ * Se activeaza cu items.processing.normalize-email.enabled=true; fara niciun ItemProcessor, ItemProcessingPipeline
+ * marcheaza loturile PROCESSED cu un singur UPDATE, fara sa mai citeasca si sa rescrie fiecare item.
+ */
+@Component
+@ConditionalOnProperty(name = "items.processing.normalize-email.enabled", havingValue = "true")
+@Order(100)
+public class EmailNormalizingProcessor implements ItemProcessor {
+
+    @Override
+    public void process(Item item) {
+        if (item.getEmail() != null) {
+            item.setEmail(item.getEmail().trim().toLowerCase(Locale.ROOT));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.siemens.internship.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+/**
+ * Identitatea acestei instante a aplicatiei, folosita ca owner pentru lease-urile de partitii si pentru job-uri.
+ * Vine din items.processing.instance-id; daca lipseste, se genereaza din hostname si un sufix aleator, deci se schimba
+ * la fiecare pornire. Cu un id fix, o instanta repornita isi recunoaste imediat job-urile ramase neterminate.
+ */
+@Component
+public class InstanceIdentity {
+
+    private final String id;
+
+    public InstanceIdentity(@Value("${items.processing.instance-id:}") String id) {
+        this.id = id.isBlank() ? defaultId() : id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    private static String defaultId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        }
+        catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,353 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.CacheConfig;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ProcessingWatermark;
+import com.siemens.internship.repository.ChangeSeqHorizon;
+import com.siemens.internship.repository.ItemChange;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ProcessingWatermarkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongFunction;
+
+/**
+ * Procesarea item-elor pe loturi (chunk-uri) de id-uri.
+ * Fiecare lot trece prin ItemProcessingPipeline (citire, ItemProcessor-ii inregistrati, salvare conditionata de status),
+ * iar loturile sunt procesate in paralel de un numar fix de workeri pe taskExecutor.
+ * Rularile incrementale (processChanges) parcurg doar item-ele modificate dupa ultimul watermark salvat.
+ */
+@Component
+public class ItemBatchProcessor {
+
+    // primul id de la care incepe parcurgerea (id-urile generate sunt strict pozitive)
+    public static final long START_ID = 0L;
+
+    private final Logger LOGGER = LoggerFactory.getLogger(ItemBatchProcessor.class);
+
+    private final ItemRepository itemRepository;
+    private final ProcessingWatermarkRepository watermarkRepository;
+    private final ChangeSeqHorizon changeSeqHorizon;
+    private final Executor taskExecutor;
+    private final ItemProcessingPipeline itemProcessingPipeline;
+    private final Cache itemCache;
+    private final ObservationRegistry observationRegistry;
+    private final Counter processedItems;
+    private final Counter failedItems;
+
+    // cate id-uri intra intr-un lot
+    private final int chunkSize;
+
+    // cate loturi se proceseaza in paralel; este tinut sub capacitatea taskExecutor-ului ca sa nu fie respinse task-uri
+    private final int parallelism;
+
+    public ItemBatchProcessor(ItemRepository itemRepository,
+                              ProcessingWatermarkRepository watermarkRepository,
+                              ChangeSeqHorizon changeSeqHorizon,
+                              @Qualifier("taskExecutor") Executor taskExecutor,
+                              ItemProcessingPipeline itemProcessingPipeline,
+                              CacheManager cacheManager,
+                              MeterRegistry meterRegistry,
+                              ObservationRegistry observationRegistry,
+                              @Value("${items.processing.chunk-size:500}") int chunkSize,
+                              @Value("${items.processing.parallelism:4}") int parallelism) {
+        if (chunkSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("items.processing.chunk-size and items.processing.parallelism must be positive");
+        }
+        this.itemRepository = itemRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.changeSeqHorizon = changeSeqHorizon;
+        this.taskExecutor = taskExecutor;
+        this.itemProcessingPipeline = itemProcessingPipeline;
+        this.itemCache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.ITEMS_CACHE));
+        this.observationRegistry = observationRegistry;
+        this.processedItems = Counter.builder("items.processed").tag("mode", "batch").register(meterRegistry);
+        this.failedItems = Counter.builder("items.failed").tag("mode", "batch").register(meterRegistry);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Rezultatul procesarii unui singur lot.
+     *
+     * @param sequence  numarul de ordine al lotului (0, 1, 2, ...)
+     * @param items     item-ele marcate PROCESSED in acest lot (cele deja procesate sunt sarite)
+     * @param processed cate item-e au trecut din NEPROCESAT in PROCESSED
+     * @param failed    cate id-uri nu au putut fi procesate din cauza unei erori
+     * @param lastId    ultimul id din lot (in rularile incrementale, ultimul change_seq din lot)
+     * @param checkpointId cel mai mare id (change_seq) pana la care toate loturile anterioare sunt terminate fara erori;
+     *                     o rulare reluata de la aceasta valoare nu sare peste niciun item, nici peste cele esuate
+     */
+    public record ChunkResult(long sequence, List<Item> items, int processed, int failed, long lastId, long checkpointId) {
+    }
+
+    /**
+     * Totalurile pentru o rulare completa.
+     */
+    public record BatchSummary(int processed, int failed) {
+    }
+
+    /**
+     * Primeste rezultatul fiecarui lot imediat dupa ce a fost salvat.
+     * Poate fi apelat concurent din mai multe thread-uri.
+     */
+    @FunctionalInterface
+    public interface ChunkListener {
+        void onChunk(ChunkResult result);
+    }
+
+    /**
+     * Proceseaza toate item-ele cu id mai mare decat afterId.
+     * Viitorul returnat se completeaza dupa ce toate loturile au fost procesate.
+     */
+    public CompletableFuture<BatchSummary> process(long afterId, ChunkListener listener) {
+        // se citesc doar id-urile item-elor care mai trebuie procesate
+        ChunkCursor cursor = new ChunkCursor(afterId, lastId -> {
+            List<Long> ids = itemRepository.findIdsByStatusAfter(Item.STATUS_NEPROCESAT, lastId, PageRequest.of(0, chunkSize));
+            return ids.isEmpty() ? null : new IdPage(ids, ids.get(ids.size() - 1));
+        });
+        return run(cursor, afterId, "batch", listener);
+    }
+
+    /**
+     * Proceseaza item-ele cu id in intervalul (afterId, upToId], adica o partitie luata de PartitionedProcessor.
+     * Inainte de fiecare lot se verifica leaseHeld; daca lease-ul s-a pierdut, nu se mai incepe niciun lot.
+     */
+    public CompletableFuture<BatchSummary> processRange(long afterId, long upToId, BooleanSupplier leaseHeld,
+                                                        ChunkListener listener) {
+        ChunkCursor cursor = new ChunkCursor(afterId, lastId -> {
+            if (!leaseHeld.getAsBoolean()) {
+                return null;
+            }
+            List<Long> ids = itemRepository.findIdsByStatusBetween(Item.STATUS_NEPROCESAT, lastId, upToId,
+                    PageRequest.of(0, chunkSize));
+            return ids.isEmpty() ? null : new IdPage(ids, ids.get(ids.size() - 1));
+        });
+        return run(cursor, afterId, "partitioned", listener);
+    }
+
+    /**
+     * Proceseaza doar item-ele neprocesate create sau modificate dupa ultimul watermark salvat.
+     * Limita superioara (change_seq-ul stabil la pornire, vezi ChangeSeqHorizon) este fixata inainte de primul lot;
+     * un change_seq luat de o tranzactie care inca nu a facut commit este peste limita, deci nu ramane sub watermark
+     * neprocesat. Modificarile mai noi decat limita, ca si cele facute in timpul rularii, inclusiv de procesare,
+     * raman pentru rularea urmatoare.
+     * Watermark-ul avanseaza la aceasta limita doar daca niciun item nu a esuat; altfel urmatoarea rulare
+     * reia acelasi interval, iar item-ele deja procesate nu mai sunt selectate pentru ca nu mai sunt NEPROCESAT.
+     */
+    public CompletableFuture<BatchSummary> processChanges(ChunkListener listener) {
+        long after = watermarkRepository.findById(ProcessingWatermark.ITEMS)
+                .map(ProcessingWatermark::getChangeSeq)
+                .orElse(0L);
+        long upTo = changeSeqHorizon.settledChangeSeq();
+
+        ChunkCursor cursor = new ChunkCursor(after, lastChangeSeq -> {
+            List<ItemChange> changes = itemRepository.findChangesByStatusBetween(Item.STATUS_NEPROCESAT,
+                    lastChangeSeq, upTo, PageRequest.of(0, chunkSize));
+            return changes.isEmpty()
+                    ? null
+                    : new IdPage(changes.stream().map(ItemChange::id).toList(), changes.get(changes.size() - 1).changeSeq());
+        });
+
+        return run(cursor, after, "incremental", listener).thenApply(summary -> {
+            if (summary.failed() == 0 && upTo > after) {
+                watermarkRepository.save(new ProcessingWatermark(ProcessingWatermark.ITEMS, upTo, Instant.now()));
+                LOGGER.info("Processing watermark advanced from {} to {}", after, upTo);
+            }
+            else if (summary.failed() > 0) {
+                LOGGER.warn("Processing watermark kept at {} because {} items failed", after, summary.failed());
+            }
+            return summary;
+        });
+    }
+
+    /**
+     * Varianta incrementala a lui processAll.
+     */
+    public CompletableFuture<List<Item>> processAllChanges() {
+        List<Item> itemsProcessed = new ArrayList<>();
+        return processChanges(result -> {
+            synchronized (itemsProcessed) {
+                itemsProcessed.addAll(result.items());
+            }
+        }).thenApply(summary -> itemsProcessed);
+    }
+
+    private CompletableFuture<BatchSummary> run(ChunkCursor cursor, long startKey, String mode, ChunkListener listener) {
+        CheckpointTracker checkpointTracker = new CheckpointTracker(startKey);
+        AtomicInteger processedCount = new AtomicInteger(0);
+        AtomicInteger failedCount = new AtomicInteger(0);
+
+        // se pornesc doar "parallelism" workeri care isi iau pe rand urmatorul lot,
+        // in loc de cate un task pentru fiecare id
+        List<CompletableFuture<Void>> workers = new ArrayList<>(parallelism);
+        try {
+            startWorkers(workers, cursor, mode, listener, checkpointTracker, processedCount, failedCount);
+        }
+        catch (RejectedExecutionException e) {
+            // executorul este plin: workerii deja porniti se opresc dupa lotul curent, iar apelantul primeste eroarea
+            cursor.close();
+            LOGGER.warn("Batch processing ({}) rejected by the task executor after starting {} of {} workers",
+                    mode, workers.size(), parallelism);
+            throw e;
+        }
+
+        return CompletableFuture
+                .allOf(workers.toArray(new CompletableFuture[0]))
+                .thenApply(x -> {
+                    LOGGER.info("Batch processing ({}) finished, processed: {}, failed: {}", mode, processedCount.get(), failedCount.get());
+                    return new BatchSummary(processedCount.get(), failedCount.get());
+                });
+    }
+
+    private void startWorkers(List<CompletableFuture<Void>> workers, ChunkCursor cursor, String mode, ChunkListener listener,
+                              CheckpointTracker checkpointTracker, AtomicInteger processedCount, AtomicInteger failedCount) {
+        for (int i = 0; i < parallelism; i++) {
+            workers.add(CompletableFuture.runAsync(() -> {
+                Chunk chunk;
+                while ((chunk = cursor.next()) != null) {
+                    Chunk current = chunk;
+
+                    // fiecare lot este o observatie: timer items.process.chunk si span, daca exista un tracer configurat
+                    ChunkResult result = Observation.createNotStarted("items.process.chunk", observationRegistry)
+                            .lowCardinalityKeyValue("mode", mode)
+                            .highCardinalityKeyValue("chunk", String.valueOf(current.sequence()))
+                            .observe(() -> processChunk(current, checkpointTracker));
+
+                    processedCount.addAndGet(result.processed());
+                    failedCount.addAndGet(result.failed());
+                    processedItems.increment(result.processed());
+                    failedItems.increment(result.failed());
+                    listener.onChunk(result);
+                }
+            }, taskExecutor));
+        }
+    }
+
+    /**
+     * Proceseaza toate item-ele si returneaza lista celor procesate cu succes.
+     */
+    public CompletableFuture<List<Item>> processAll() {
+        List<Item> itemsProcessed = new ArrayList<>();
+        return process(START_ID, result -> {
+            synchronized (itemsProcessed) {
+                itemsProcessed.addAll(result.items());
+            }
+        }).thenApply(summary -> itemsProcessed);
+    }
+
+    private ChunkResult processChunk(Chunk chunk, CheckpointTracker checkpointTracker) {
+        try {
+            ItemProcessingPipeline.Result result = itemProcessingPipeline.run(chunk.ids());
+
+            // starea noua nu trece prin metodele cu @CachePut, deci intrarile din cache se inlocuiesc aici;
+            // doar cele existente, ca rularea sa nu umple cache-ul cu item-ele procesate
+            result.items().forEach(item -> CacheConfig.replaceIfPresent(itemCache, item.getId(), item));
+
+            return new ChunkResult(chunk.sequence(), result.items(), result.items().size(), result.failed(),
+                    chunk.lastId(), checkpointTracker.complete(chunk, result.failed() == 0));
+        }
+        catch (Exception e) {
+            // un lot esuat nu opreste restul procesarii
+            LOGGER.error("Error while processing chunk {} ending at ID {}", chunk.sequence(), chunk.lastId(), e);
+            return new ChunkResult(chunk.sequence(), List.of(), 0, chunk.ids().size(),
+                    chunk.lastId(), checkpointTracker.complete(chunk, false));
+        }
+    }
+
+    // lastId este cheia de paginare a lotului: ultimul id, sau ultimul change_seq in rularile incrementale
+    private record Chunk(long sequence, List<Long> ids, long lastId) {
+    }
+
+    // o pagina de id-uri si cheia de la care incepe pagina urmatoare
+    private record IdPage(List<Long> ids, long lastKey) {
+    }
+
+    /**
+     * Imparte item-ele de procesat in loturi folosind paginare pe cheie; loader-ul primeste ultima cheie citita
+     * si intoarce pagina urmatoare sau null cand nu mai este nimic de citit.
+     * Este sincronizat pentru ca mai multi workeri cer loturi in acelasi timp.
+     */
+    private static final class ChunkCursor {
+        private final LongFunction<IdPage> loader;
+        private long lastKey;
+        private long sequence = 0;
+        private boolean exhausted = false;
+
+        private ChunkCursor(long afterKey, LongFunction<IdPage> loader) {
+            this.lastKey = afterKey;
+            this.loader = loader;
+        }
+
+        synchronized Chunk next() {
+            if (exhausted) {
+                return null;
+            }
+
+            IdPage page = loader.apply(lastKey);
+            if (page == null) {
+                exhausted = true;
+                return null;
+            }
+
+            lastKey = page.lastKey();
+            return new Chunk(sequence++, page.ids(), page.lastKey());
+        }
+
+        // nu mai da loturi noi; cele deja luate se termina normal
+        synchronized void close() {
+            exhausted = true;
+        }
+    }
+
+    /**
+     * Loturile se termina in ordine arbitrara, asa ca punctul de reluare avanseaza doar peste loturile consecutive terminate.
+     * Un lot cu item-e esuate opreste punctul de reluare inaintea lui pana la sfarsitul rularii, ca o rulare reluata
+     * sa incerce din nou acele item-e; item-ele deja procesate de dupa el sunt sarite la reluare dupa status.
+     */
+    private static final class CheckpointTracker {
+        private final TreeMap<Long, Long> completedOutOfOrder = new TreeMap<>();
+        private long nextSequence = 0;
+        private long firstFailedSequence = Long.MAX_VALUE;
+        private long checkpointId;
+
+        private CheckpointTracker(long afterId) {
+            this.checkpointId = afterId;
+        }
+
+        synchronized long complete(Chunk chunk, boolean succeeded) {
+            if (!succeeded) {
+                firstFailedSequence = Math.min(firstFailedSequence, chunk.sequence());
+            }
+            if (chunk.sequence() < firstFailedSequence) {
+                completedOutOfOrder.put(chunk.sequence(), chunk.lastId());
+            }
+            while (nextSequence < firstFailedSequence && completedOutOfOrder.containsKey(nextSequence)) {
+                checkpointId = completedOutOfOrder.remove(nextSequence);
+                nextSequence++;
+            }
+            return checkpointId;
+        }
+    }
+}
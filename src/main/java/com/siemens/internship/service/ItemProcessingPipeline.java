@@ -0,0 +1,225 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Procesarea unui lot de item-e in trei pasi: citire (I/O), ItemProcessor-ii inregistrati (CPU) si salvare (I/O).
+ * Pasii I/O ruleaza pe thread-ul apelantului (un worker de pe taskExecutor), iar pasul CPU pe un ForkJoinPool
+ * separat, dimensionat dupa numarul de nuclee, in paralel pentru item-ele din lot. Nicio conexiune la baza de date
+ * nu este tinuta ocupata cat timp ruleaza pasul CPU.
+ * Fara niciun ItemProcessor inregistrat, lotul este marcat PROCESSED direct, cu un singur UPDATE.
+ * Durata fiecarui pas este masurata in items.process.stage, cu tag-ul stage, iar item-ele lasate NEPROCESAT pentru ca
+ * s-au modificat intre citire si salvare sunt numarate in items.skipped.
+ */
+@Component
+public class ItemProcessingPipeline {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(ItemProcessingPipeline.class);
+
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final List<ItemProcessor> processors;
+    private final ForkJoinPool cpuPool;
+
+    private final Timer loadTimer;
+    private final Timer cpuTimer;
+    private final Timer writeTimer;
+    private final Counter skippedItems;
+
+    public ItemProcessingPipeline(ItemRepository itemRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectProvider<ItemProcessor> processors,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${items.processing.cpu-parallelism:0}") int cpuParallelism) {
+        this.itemRepository = itemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.processors = processors.orderedStream().toList();
+
+        // 0 inseamna cate un thread pentru fiecare nucleu
+        int threads = cpuParallelism > 0 ? cpuParallelism : Runtime.getRuntime().availableProcessors();
+        this.cpuPool = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("item-cpu-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+
+        this.loadTimer = stageTimer(meterRegistry, "load");
+        this.cpuTimer = stageTimer(meterRegistry, "cpu");
+        this.writeTimer = stageTimer(meterRegistry, "write");
+        this.skippedItems = Counter.builder("items.skipped")
+                .description("Items left unprocessed because they changed while they were being processed")
+                .register(meterRegistry);
+
+        LOGGER.info("Item pipeline with {} processor(s), {} CPU thread(s)", this.processors.size(), threads);
+    }
+
+    /**
+     * Rezultatul unui lot.
+     *
+     * @param items  item-ele salvate ca PROCESSED, cu starea din baza de date
+     * @param failed cate item-e au fost respinse de un ItemProcessor (raman NEPROCESAT)
+     */
+    public record Result(List<Item> items, int failed) {
+    }
+
+    /**
+     * Proceseaza item-ele cu id-urile date care sunt inca NEPROCESAT; celelalte sunt sarite.
+     * Un item modificat de altcineva intre citire si salvare este lasat NEPROCESAT pentru o rulare ulterioara,
+     * in loc sa fie suprascris cu o stare veche.
+     */
+    public Result run(List<Long> ids) {
+        if (processors.isEmpty()) {
+            return new Result(transitionOnly(ids), 0);
+        }
+
+        Result computed = compute(ids);
+        if (computed.items().isEmpty()) {
+            return computed;
+        }
+        return new Result(save(computed.items()), computed.failed());
+    }
+
+    /**
+     * Primii doi pasi, fara salvare: citeste item-ele inca NEPROCESAT si ruleaza ItemProcessor-ii pe ele.
+     * Item-ele intoarse sunt detasate si au campurile calculate, dar statusul si versiunea citite;
+     * save() le scrie mai tarziu (de exemplu din ItemWriteBuffer, grupate cu ale altor apeluri).
+     */
+    public Result compute(List<Long> ids) {
+        // citirea, fara blocare si intr-o tranzactie scurta
+        List<Item> loaded = loadTimer.record(() -> itemRepository.readByIdInAndStatus(ids, Item.STATUS_NEPROCESAT));
+        if (loaded.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+
+        Set<Long> failedIds = applyProcessors(loaded).join();
+
+        List<Item> results = loaded.stream()
+                .filter(item -> !failedIds.contains(item.getId()))
+                .toList();
+        return new Result(results, failedIds.size());
+    }
+
+    /**
+     * Ultimul pas: scrie rezultatele calculate de compute() intr-o singura tranzactie si le marcheaza PROCESSED.
+     * Item-ele modificate intre timp sau procesate deja de altcineva sunt sarite.
+     *
+     * @return item-ele salvate, cu starea din baza de date
+     */
+    public List<Item> save(Collection<Item> results) {
+        Map<Long, Item> byId = results.stream().collect(Collectors.toMap(Item::getId, Function.identity()));
+        return writeTimer.record(() -> transactionTemplate.execute(status -> write(byId)));
+    }
+
+    /**
+     * Pasul CPU singur: ruleaza ItemProcessor-ii pe item-ele date, pe pool-ul CPU, fara acces la baza de date.
+     * Future-ul se termina pe un thread din pool, asa ca apelantul nu tine ocupat niciun thread cat asteapta.
+     *
+     * @return id-urile item-elor respinse de un ItemProcessor
+     */
+    public CompletableFuture<Set<Long>> applyProcessors(List<Item> items) {
+        Timer.Sample sample = Timer.start();
+        Set<Long> failedIds = ConcurrentHashMap.newKeySet();
+
+        // un parallel stream pornit din interiorul pool-ului foloseste thread-urile acelui pool
+        return CompletableFuture.supplyAsync(() -> {
+            items.parallelStream().forEach(item -> {
+                try {
+                    for (ItemProcessor processor : processors) {
+                        processor.process(item);
+                    }
+                }
+                catch (RuntimeException e) {
+                    failedIds.add(item.getId());
+                    LOGGER.error("Error while processing item ID {}", item.getId(), e);
+                }
+            });
+            sample.stop(cpuTimer);
+            return failedIds;
+        }, cpuPool);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cpuPool.shutdown();
+    }
+
+    // item-ele sunt blocate si verificate din nou, apoi primesc campurile calculate si statusul PROCESSED;
+    // versiunea este incrementata de Hibernate la flush
+    private List<Item> write(Map<Long, Item> results) {
+        List<Item> locked = itemRepository.findByIdInAndStatus(results.keySet(), Item.STATUS_NEPROCESAT);
+        List<Item> saved = new ArrayList<>(locked.size());
+
+        for (Item current : locked) {
+            Item result = results.get(current.getId());
+            if (!Objects.equals(current.getVersion(), result.getVersion())) {
+                LOGGER.warn("Item ID {} changed while it was being processed, leaving it for the next run", current.getId());
+                skippedItems.increment();
+                continue;
+            }
+            current.setName(result.getName());
+            current.setDescription(result.getDescription());
+            current.setEmail(result.getEmail());
+            current.setStatus(Item.STATUS_PROCESSED);
+            saved.add(current);
+        }
+        return saved;
+    }
+
+    // se blocheaza doar item-ele inca neprocesate, apoi se schimba statusul lor cu un UPDATE conditionat;
+    // item-ele deja procesate (de exemplu de o alta rulare concurenta) sunt sarite fara sa fie rescrise
+    private List<Item> transitionOnly(List<Long> ids) {
+        List<Item> items = writeTimer.record(() -> transactionTemplate.execute(status -> {
+            List<Item> candidates = itemRepository.findByIdInAndStatus(ids, Item.STATUS_NEPROCESAT);
+            if (candidates.isEmpty()) {
+                return candidates;
+            }
+
+            int changed = itemRepository.transitionStatus(
+                    candidates.stream().map(Item::getId).toList(), Item.STATUS_NEPROCESAT, Item.STATUS_PROCESSED);
+            if (changed != candidates.size()) {
+                // nu ar trebui sa se intample, randurile sunt blocate
+                LOGGER.warn("Status update changed {} rows, expected {}", changed, candidates.size());
+            }
+            return candidates;
+        }));
+
+        // entitatile sunt detasate dupa UPDATE, asa ca starea noua se seteaza doar pentru raspuns
+        items.forEach(item -> {
+            item.setStatus(Item.STATUS_PROCESSED);
+            item.setVersion(item.getVersion() == null ? 1 : item.getVersion() + 1);
+        });
+        return items;
+    }
+
+    private Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("items.process.stage")
+                .description("Time spent in one stage of the item pipeline, per chunk")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+}
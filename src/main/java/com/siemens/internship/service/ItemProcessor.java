@@ -0,0 +1,17 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+
+/**
+ * Un pas din procesarea unui item (imbogatire, normalizare, campuri calculate).
+ * Implementarile sunt bean-uri Spring si ruleaza in ordinea data de @Order, inainte ca item-ul sa fie marcat PROCESSED.
+ * process() este apelat pe pool-ul CPU al ItemProcessingPipeline, in paralel pentru item-e diferite si in afara
+ * oricarei tranzactii, asa ca nu trebuie sa acceseze baza de date sau alte resurse blocante.
+ */
+public interface ItemProcessor {
+
+    /**
+     * Modifica item-ul pe loc. O exceptie marcheaza doar acest item ca esuat; el ramane NEPROCESAT.
+     */
+    void process(Item item);
+}
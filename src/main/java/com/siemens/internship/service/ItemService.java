@@ -1,22 +1,102 @@
 package com.siemens.internship.service;
 
+import com.siemens.internship.config.CacheConfig;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ChangeSeqHorizon;
+import com.siemens.internship.repository.CompactItemRepository;
+import com.siemens.internship.repository.ItemFilter;
 import com.siemens.internship.repository.ItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ItemService {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private ItemBatchProcessor itemBatchProcessor;
+
+    @Autowired
+    private ItemProcessingPipeline itemProcessingPipeline;
+
+    @Autowired
+    private PartitionedProcessor partitionedProcessor;
+
+    @Autowired
+    private ItemWriteBuffer itemWriteBuffer;
+
+    // citirile trec prin store-ul compact cand este activat si incarcat (items.store.compact.enabled)
+    @Autowired
+    private CompactItemRepository compactItemRepository;
+
+    // limita pana la care fluxul de modificari este complet
+    @Autowired
+    private ChangeSeqHorizon changeSeqHorizon;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    // acelasi prag ca hibernate.jdbc.batch_size, ca fiecare flush sa trimita batch-uri complete
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
+
+    private MeterRegistry meterRegistry;
+
+    // metricile procesarii individuale; varianta pe loturi le publica pe ale ei cu mode=batch
+    private Timer itemTimer;
+    private Counter processedItems;
+    private Counter failedItems;
+
+    @Autowired
+    void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.itemTimer = Timer.builder("items.process.item")
+                .description("Time to process a single item")
+                .tag("mode", "single")
+                .register(meterRegistry);
+        this.processedItems = Counter.builder("items.processed")
+                .tag("mode", "single")
+                .register(meterRegistry);
+        this.failedItems = Counter.builder("items.failed")
+                .tag("mode", "single")
+                .register(meterRegistry);
+    }
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
     // logger folosit pentru a afisa mesaje in timpul executiei
     private final Logger LOGGER = LoggerFactory.getLogger(ItemService.class);
 
@@ -25,16 +105,191 @@ public class ItemService {
         return itemRepository.findAll();
     }
 
+    private Cache itemCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CacheConfig.ITEMS_CACHE));
+    }
+
+    /**
+     * O pagina de item-e care respecta filtrul, cu id mai mare decat afterId (paginare pe cheie dupa id).
+     */
+    public List<Item> findPage(ItemFilter filter, long afterId, int limit) {
+        if (compactItemRepository.isReady()) {
+            return compactItemRepository.findPage(filter, afterId, limit);
+        }
+        return itemRepository.findPage(filter, afterId, limit);
+    }
+
+    /**
+     * La fel ca findPage, dar citeste doar campurile cerute.
+     */
+    public List<Map<String, Object>> findPageProjected(ItemFilter filter, long afterId, int limit, List<String> fields) {
+        return itemRepository.findPageProjected(filter, afterId, limit, fields);
+    }
+
+    /**
+     * Fluxul de modificari: item-ele create sau modificate dupa since, in ordinea modificarilor.
+     * Urmatoarea cerere foloseste ca since changeSeq-ul ultimului item primit.
+     * Sunt intoarse doar modificarile pana la limita stabila (ChangeSeqHorizon), ca un since dat clientului
+     * sa nu treaca de o modificare care inca nu a facut commit.
+     */
+    public List<Item> findChangesSince(long since, int limit) {
+        return itemRepository.findChangesBetween(since, changeSeqHorizon.settledChangeSeq(), PageRequest.of(0, limit));
+    }
+
+    /**
+     * Trimite toate item-ele, pe rand, catre consumer, fara sa le tina pe toate in memorie.
+     * Fiecare entitate este detasata dupa ce a fost consumata, ca persistence context-ul sa nu creasca.
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<Item> consumer) {
+        try (Stream<Item> items = itemRepository.streamAllOrderById()) {
+            items.forEach(item -> {
+                consumer.accept(item);
+                entityManager.detach(item);
+            });
+        }
+    }
+
+    // citirile dupa id trec prin cache; id-urile inexistente nu sunt puse in cache
+    @Cacheable(cacheNames = CacheConfig.ITEMS_CACHE, unless = "#result == null")
     public Optional<Item> findById(Long id) {
+        if (compactItemRepository.isReady()) {
+            return compactItemRepository.findById(id);
+        }
         return itemRepository.findById(id);
     }
 
+    // starea curenta din baza de date, fara cache si fara store-ul compact (de exemplu versiunea pentru o actualizare)
+    public Optional<Item> findCurrentById(Long id) {
+        return itemRepository.findById(id);
+    }
+
+    // dupa un conflict de versiune intrarea din cache poate fi veche (scrisa de procesare, de alta instanta sau prin R2DBC);
+    // este stearsa, iar store-ul compact primeste starea curenta
+    @CacheEvict(cacheNames = CacheConfig.ITEMS_CACHE, key = "#id")
+    public void evictStale(Long id) {
+        itemRepository.findById(id).ifPresent(compactItemRepository::put);
+    }
+
+    // item-ul salvat inlocuieste direct intrarea din cache
+    @CachePut(cacheNames = CacheConfig.ITEMS_CACHE, key = "#result.id")
     public Item save(Item item) {
-        return itemRepository.save(item);
+        Item saved = itemRepository.save(item);
+        compactItemRepository.put(saved);
+        return saved;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.ITEMS_CACHE, key = "#id")
     public void deleteById(Long id) {
         itemRepository.deleteById(id);
+        compactItemRepository.remove(id);
+    }
+
+    /**
+     * Salveaza toate item-ele noi intr-o singura tranzactie. Insert-urile sunt trimise in batch-uri JDBC,
+     * iar persistence context-ul este golit periodic ca sa nu tina in memorie toate entitatile.
+     */
+    public List<Item> saveAll(List<Item> items) {
+        List<Item> saved = transactionTemplate.execute(status -> {
+            List<Item> result = new ArrayList<>(items.size());
+            for (Item item : items) {
+                item.setId(null);
+                result.add(itemRepository.save(item));
+                flushPeriodically(result.size());
+            }
+            return result;
+        });
+
+        // cache-ul se actualizeaza doar dupa commit, si doar pentru intrarile existente (vezi CacheConfig.replaceIfPresent)
+        saved.forEach(item -> {
+            CacheConfig.replaceIfPresent(itemCache(), item.getId(), item);
+            compactItemRepository.put(item);
+        });
+        return saved;
+    }
+
+    /**
+     * Rezultatul unei actualizari bulk.
+     *
+     * @param updated   item-ele actualizate, dupa id
+     * @param conflicts id-urile pentru care clientul a trimis o versiune care nu mai este cea curenta
+     */
+    public record BulkUpdate(Map<Long, Item> updated, Set<Long> conflicts) {
+    }
+
+    /**
+     * Actualizeaza item-ele existente: toate sunt citite si blocate cu un singur SELECT, iar modificarile
+     * sunt scrise la commit ca UPDATE-uri in batch. Item-ele care nu exista sunt ignorate.
+     * Ca la PUT pentru un singur item, un item trimis cu o versiune diferita de cea curenta nu este modificat
+     * si apare in conflicts; fara versiune, item-ul este suprascris.
+     * Fiecare item trebuie sa aiba un id, iar un id poate aparea o singura data (altfel doar ultima actualizare
+     * ar ramane, fara ca celelalte sa fie raportate ca pierdute).
+     */
+    public BulkUpdate updateAll(List<Item> items) {
+        Set<Long> ids = new HashSet<>();
+        for (Item item : items) {
+            if (item == null || item.getId() == null || !ids.add(item.getId())) {
+                throw new IllegalArgumentException("Bulk update items must be non-null, with distinct ids");
+            }
+        }
+
+        Set<Long> conflicts = new HashSet<>();
+        Map<Long, Item> updated = transactionTemplate.execute(status -> {
+            Map<Long, Item> existing = new HashMap<>();
+            itemRepository.findByIdIn(ids)
+                    .forEach(item -> existing.put(item.getId(), item));
+
+            Map<Long, Item> changed = new HashMap<>();
+            for (Item item : items) {
+                Item target = existing.get(item.getId());
+                if (target == null) {
+                    continue;
+                }
+                if (item.getVersion() != null && !item.getVersion().equals(target.getVersion())) {
+                    conflicts.add(item.getId());
+                    continue;
+                }
+                target.setName(item.getName());
+                target.setDescription(item.getDescription());
+                target.setStatus(item.getStatus());
+                target.setEmail(item.getEmail());
+                changed.put(target.getId(), target);
+            }
+            return changed;
+        });
+
+        updated.forEach((id, item) -> {
+            CacheConfig.replaceIfPresent(itemCache(), id, item);
+            compactItemRepository.put(item);
+        });
+        return new BulkUpdate(updated, conflicts);
+    }
+
+    /**
+     * Sterge item-ele existente cu un singur DELETE.
+     *
+     * @return id-urile care au fost sterse
+     */
+    public Set<Long> deleteAllById(Collection<Long> ids) {
+        Set<Long> deleted = transactionTemplate.execute(status -> {
+            List<Long> existing = itemRepository.findExistingIds(ids);
+            itemRepository.deleteAllByIdInBatch(existing);
+            return new HashSet<>(existing);
+        });
+
+        deleted.forEach(id -> {
+            itemCache().evict(id);
+            compactItemRepository.remove(id);
+        });
+        return deleted;
+    }
+
+    // la fiecare batch complet se trimit insert-urile si se elibereaza entitatile din persistence context
+    private void flushPeriodically(int count) {
+        if (count % jdbcBatchSize == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
     }
 
 
@@ -66,46 +321,108 @@ public class ItemService {
     public CompletableFuture<Item> processSingleItem(Long id,
                                                      AtomicInteger processedCount,
                                                      AtomicInteger failedCount) {
+        // durata procesarii fiecarui item este masurata in items.process.item
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
-            // se obtine item-ul din baza de data dupa id
-            Optional<Item> optionalItem = itemRepository.findById(id);
+            if (itemWriteBuffer.isEnabled()) {
+                return processThroughWriteBuffer(id, processedCount, failedCount);
+            }
 
-            //daca este gasit se proceseaza
-            if (optionalItem.isPresent()) {
-                Item item = optionalItem.get();
+            // item-ul trece prin aceiasi pasi ca un lot (ItemProcessor-ii inregistrati si salvarea conditionata de status);
+            // daca a fost deja procesat (de exemplu de o rulare concurenta) nu se modifica nimic
+            ItemProcessingPipeline.Result result = itemProcessingPipeline.run(List.of(id));
 
-                // item-ul se proceseaza si se salveaza inapoi in baza de date
-                item.setStatus("PROCESSED");
-                itemRepository.save(item);
+            if (!result.items().isEmpty()) {
+                Item processedItem = result.items().get(0);
+                CacheConfig.replaceIfPresent(itemCache(), id, processedItem);
 
                 // se incrementeaza atomic numarul de elemente procesate
                 processedCount.incrementAndGet();
+                processedItems.increment();
 
-                return CompletableFuture.completedFuture(item);
+                return CompletableFuture.completedFuture(processedItem);
             }
-            //daca item-ul nu este gasit
-            else {
+            // un ItemProcessor a respins item-ul (eroarea este deja afisata de pipeline)
+            else if (result.failed() > 0) {
+                failedCount.incrementAndGet();
+                failedItems.increment();
+            }
+            //daca item-ul nu mai exista
+            else if (!itemRepository.existsById(id)) {
                 // se incrementeaza numarul de elemente ce nu au putut fi procesate
                 failedCount.incrementAndGet();
+                failedItems.increment();
 
                 // se afiseaza un mesaj corespunzator
-                LOGGER.warn("Item not found with ID " + id);
+                LOGGER.warn("Item not found with ID {}", id);
             }
+            // altfel item-ul era deja procesat si este sarit
         }
         catch (Exception e) {
             // elementul nu a putut fi procesat deci creste numarul elementelor neprocesate si se afiseaza un mesaj corespunzator
             failedCount.incrementAndGet();
-            LOGGER.error("Error while processing item ID " + id);
+            failedItems.increment();
+            LOGGER.error("Error while processing item ID {}", id, e);
+        }
+        finally {
+            sample.stop(itemTimer);
         }
 
         return CompletableFuture.completedFuture(null);
     }
 
+    // rezultatul este calculat aici, dar scris de ItemWriteBuffer impreuna cu ale altor item-e, asa ca metoda nu asteapta
+    // scrierea; cu durabilitatea SYNC future-ul intors se completeaza dupa commit, cu ASYNC imediat ce rezultatul
+    // a intrat in buffer. Contoarele (si metricile items.processed / items.failed) sunt actualizate doar dupa scriere,
+    // o singura data pentru fiecare item; cu ASYNC, contoarele rularii contin doar scrierile terminate inaintea ei
+    private CompletableFuture<Item> processThroughWriteBuffer(Long id,
+                                                              AtomicInteger processedCount,
+                                                              AtomicInteger failedCount) throws InterruptedException {
+        ItemProcessingPipeline.Result computed = itemProcessingPipeline.compute(List.of(id));
+
+        if (computed.items().isEmpty()) {
+            if (computed.failed() > 0 || !itemRepository.existsById(id)) {
+                failedCount.incrementAndGet();
+                failedItems.increment();
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Item result = computed.items().get(0);
+
+        CompletableFuture<Item> written = itemWriteBuffer.submit(result).handle((saved, e) -> {
+            if (e != null) {
+                // eroarea este deja afisata de ItemWriteBuffer; item-ul ramane NEPROCESAT
+                failedCount.incrementAndGet();
+                failedItems.increment();
+                return null;
+            }
+            if (saved != null) {
+                CacheConfig.replaceIfPresent(itemCache(), saved.getId(), saved);
+                processedCount.incrementAndGet();
+                processedItems.increment();
+            }
+            return saved;
+        });
+
+        if (itemWriteBuffer.getDurability() == WriteDurability.SYNC) {
+            return written;
+        }
+
+        // rezultatul din buffer trebuie sa pastreze versiunea citita (scrierea o compara cu cea din baza de date),
+        // asa ca se intoarce o copie cu starea pe care o va avea item-ul dupa scriere; daca scrierea este sarita
+        // sau esueaza, item-ul ramane NEPROCESAT si este luat de rularea urmatoare
+        Item accepted = new Item(result.getId(), result.getName(), result.getDescription(), Item.STATUS_PROCESSED,
+                result.getEmail());
+        accepted.setVersion((result.getVersion() == null ? 0 : result.getVersion()) + 1);
+        return CompletableFuture.completedFuture(accepted);
+    }
+
     @Async("taskExecutor")
     public CompletableFuture<List<Item>> processItemsAsync() {
 
-        // in itemIds vor fi toate id-urile item-urilor din baza de date
-        List<Long> itemIds = itemRepository.findAllIds();
+        // in itemIds vor fi id-urile item-elor care mai trebuie procesate (cele deja procesate nu mai sunt citite deloc)
+        List<Long> itemIds = itemRepository.findIdsByStatus(Item.STATUS_NEPROCESAT);
 
         // aceasta lista contine toate task-urile (cate unul pentru fiecare id), pentru care se va astepta terminarea executiei
         List<CompletableFuture<Item>> futureThreadsList = new ArrayList<>();
@@ -125,7 +442,7 @@ public class ItemService {
         return CompletableFuture
                 .allOf(futureThreadsList.toArray(new CompletableFuture[0])) // asa se asteapta terminarea tuturor task-urilor din lista
                 .thenApply(x -> {   // dupa ce toate sunt gata se afiseaza cate au procesate in total, cate cu succes si cate nu
-                    LOGGER.info("Processed successfully: " + processedCount.get() + " , failed : " + failedCount.get());
+                    LOGGER.info("Processed successfully: {} , failed : {}", processedCount.get(), failedCount.get());
 
                     List<Item> itemsProcessed = new ArrayList<>();
 
@@ -152,5 +469,35 @@ public class ItemService {
                     return new ArrayList<>();
                 });
     }
-}
 
+    /**
+     * Varianta pe loturi a lui processItemsAsync: id-urile sunt impartite in loturi configurabile,
+     * fiecare lot este citit cu un SELECT si marcat PROCESSED cu un UPDATE, iar loturile ruleaza in paralel.
+     * Procesarea individuala de mai sus ramane disponibila pentru comparatie.
+     */
+    public CompletableFuture<List<Item>> processItemsInBatchesAsync() {
+        return itemBatchProcessor.processAll();
+    }
+
+    /**
+     * Procesare pe loturi impartita cu celelalte instante: doar partitiile de id-uri luate de aceasta instanta.
+     */
+    public CompletableFuture<List<Item>> processItemsPartitionedAsync() {
+        return partitionedProcessor.processAll();
+    }
+
+    /**
+     * Procesare incrementala: doar item-ele neprocesate create sau modificate dupa ultima rulare incrementala reusita.
+     */
+    public CompletableFuture<List<Item>> processItemsIncrementallyAsync() {
+        return itemBatchProcessor.processAllChanges();
+    }
+
+    /**
+     * Procesare pe loturi fara acumularea rezultatelor: fiecare lot este trimis catre listener imediat dupa salvare,
+     * asa ca memoria folosita nu depinde de numarul total de item-e.
+     */
+    public CompletableFuture<ItemBatchProcessor.BatchSummary> processItemsStreaming(ItemBatchProcessor.ChunkListener listener) {
+        return itemBatchProcessor.process(ItemBatchProcessor.START_ID, listener);
+    }
+}
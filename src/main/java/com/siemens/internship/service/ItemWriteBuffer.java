@@ -0,0 +1,261 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffer write-behind pentru rezultatele procesarii individuale (items.processing.write-behind.enabled).
+ * In loc ca fiecare item sa fie scris in tranzactia lui, rezultatele calculate de ItemProcessingPipeline.compute()
+ * intra intr-o coada limitata, grupata dupa id (un item trimis de doua ori inainte de scriere este scris o singura data,
+ * cu ultimul rezultat), iar un singur thread le scrie pe loturi cu ItemProcessingPipeline.save().
+ * Un lot este scris cand are max-batch item-e sau cand cel mai vechi item din el asteapta de max-delay-ms.
+ * Cand coada este plina, cei care trimit rezultate asteapta, deci memoria folosita ramane limitata.
+ * Metrici: items.write-behind.flush (durata scrierii unui lot), items.write-behind.queue (item-e care asteapta),
+ * items.write-behind.coalesced (rezultate inlocuite inainte de scriere).
+ */
+@Component
+public class ItemWriteBuffer {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(ItemWriteBuffer.class);
+
+    private final ItemProcessingPipeline itemProcessingPipeline;
+    private final boolean enabled;
+    private final WriteDurability durability;
+    private final int capacity;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+
+    private final Timer flushTimer;
+    private final Counter coalescedCount;
+
+    // rezultatele care asteapta sa fie scrise, in ordinea sosirii; accesate doar sub lock
+    private final LinkedHashMap<Long, Pending> pending = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition batchFull = lock.newCondition();
+    private boolean running = true;
+
+    private final Thread flusher;
+
+    public ItemWriteBuffer(ItemProcessingPipeline itemProcessingPipeline,
+                           MeterRegistry meterRegistry,
+                           @Value("${items.processing.write-behind.enabled:false}") boolean enabled,
+                           @Value("${items.processing.write-behind.durability:sync}") WriteDurability durability,
+                           @Value("${items.processing.write-behind.capacity:10000}") int capacity,
+                           @Value("${items.processing.write-behind.max-batch:500}") int maxBatch,
+                           @Value("${items.processing.write-behind.max-delay-ms:20}") long maxDelayMs) {
+        if (capacity <= 0 || maxBatch <= 0 || maxDelayMs < 0) {
+            throw new IllegalArgumentException("items.processing.write-behind.capacity and max-batch must be positive, max-delay-ms not negative");
+        }
+        this.itemProcessingPipeline = itemProcessingPipeline;
+        this.enabled = enabled;
+        this.durability = durability;
+        this.capacity = capacity;
+        this.maxBatch = Math.min(maxBatch, capacity);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+
+        this.flushTimer = Timer.builder("items.write-behind.flush")
+                .description("Time to write one batch of buffered item results")
+                .register(meterRegistry);
+        this.coalescedCount = Counter.builder("items.write-behind.coalesced")
+                .description("Buffered item results replaced by a newer result for the same item before being written")
+                .register(meterRegistry);
+        Gauge.builder("items.write-behind.queue", this, ItemWriteBuffer::size)
+                .description("Item results waiting to be written")
+                .register(meterRegistry);
+
+        if (enabled) {
+            flusher = new Thread(this::flushLoop, "item-write-behind");
+            flusher.setDaemon(true);
+            flusher.start();
+            LOGGER.info("Write-behind buffer enabled ({} durability, capacity {}, batches of up to {} items or {} ms)",
+                    durability, capacity, this.maxBatch, maxDelayMs);
+        }
+        else {
+            flusher = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public WriteDurability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Pune in buffer rezultatul calculat pentru un item.
+     * Future-ul se completeaza dupa scriere cu item-ul salvat, sau cu null daca item-ul a fost modificat ori procesat
+     * de altcineva intre timp; daca tranzactia lotului esueaza, se completeaza cu eroarea (item-ul ramane NEPROCESAT).
+     * Asteapta daca bufferul este plin.
+     */
+    public CompletableFuture<Item> submit(Item result) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Write-behind buffer is shut down");
+            }
+
+            Pending existing = pending.get(result.getId());
+            if (existing != null) {
+                // acelasi item inca nescris: se pastreaza doar ultimul rezultat, toti cei care l-au trimis primesc acelasi future
+                existing.item = result;
+                coalescedCount.increment();
+                return existing.future;
+            }
+
+            while (pending.size() >= capacity) {
+                notFull.await();
+                if (!running) {
+                    throw new IllegalStateException("Write-behind buffer is shut down");
+                }
+            }
+
+            Pending entry = new Pending(result, System.nanoTime());
+            pending.put(result.getId(), entry);
+            if (pending.size() == 1) {
+                notEmpty.signal();
+            }
+            if (pending.size() >= maxBatch) {
+                batchFull.signal();
+            }
+            return entry.future;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return pending.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opreste bufferul: rezultatele deja primite sunt scrise inainte ca metoda sa se termine.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signalAll();
+            notFull.signalAll();
+            batchFull.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+        flusher.join();
+    }
+
+    private void flushLoop() {
+        while (true) {
+            Map<Long, Pending> batch;
+            try {
+                batch = nextBatch();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch == null) {
+                return;
+            }
+            flush(batch);
+        }
+    }
+
+    // asteapta pana cand exista un lot de scris: max-batch rezultate, sau cel mai vechi rezultat a asteptat max-delay-ms;
+    // la oprire intoarce tot ce a ramas, apoi null
+    private Map<Long, Pending> nextBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (pending.isEmpty()) {
+                if (!running) {
+                    return null;
+                }
+                notEmpty.await();
+            }
+
+            long deadline = pending.values().iterator().next().enqueuedAt + maxDelayNanos;
+            long remaining;
+            while (running && pending.size() < maxBatch && (remaining = deadline - System.nanoTime()) > 0) {
+                batchFull.awaitNanos(remaining);
+            }
+
+            Map<Long, Pending> batch = new HashMap<>();
+            Iterator<Map.Entry<Long, Pending>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < maxBatch) {
+                Map.Entry<Long, Pending> entry = iterator.next();
+                batch.put(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+            notFull.signalAll();
+            return batch;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void flush(Map<Long, Pending> batch) {
+        List<Item> results = new ArrayList<>(batch.size());
+        batch.values().forEach(entry -> results.add(entry.item));
+
+        try {
+            List<Item> saved = flushTimer.recordCallable(() -> itemProcessingPipeline.save(results));
+
+            for (Item item : saved) {
+                batch.remove(item.getId()).future.complete(item);
+            }
+            // cele ramase au fost sarite la scriere (modificate sau deja procesate)
+            batch.values().forEach(entry -> entry.future.complete(null));
+        }
+        catch (Exception e) {
+            LOGGER.error("Error while writing {} buffered item results", batch.size(), e);
+            batch.values().forEach(entry -> entry.future.completeExceptionally(e));
+        }
+    }
+
+    // item-ul este inlocuit sub lock cand acelasi id este trimis din nou
+    private static final class Pending {
+        private Item item;
+        private final long enqueuedAt;
+        private final CompletableFuture<Item> future = new CompletableFuture<>();
+
+        private Pending(Item item, long enqueuedAt) {
+            this.item = item;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ProcessingLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Procesarea pe loturi impartita intre mai multe instante ale aplicatiei care folosesc aceeasi baza de date.
+ * Id-urile sunt impartite in partitii de partition-size id-uri; o instanta proceseaza doar partitiile pentru care
+ * a obtinut un lease (tabela processing_lease), il prelungeste inainte de fiecare lot si il elibereaza la final.
+ * Partitiile tinute de alte instante sunt sarite, asa ca instantele nu fac aceeasi munca si nu se blocheaza
+ * reciproc pe aceleasi randuri. Lease-ul unei instante oprite expira dupa lease-ttl, iar partitia ei este preluata
+ * de urmatoarea rulare. Fiecare instanta incepe cu alta partitie, ca sa nu concureze toate pentru prima.
+ */
+@Component
+public class PartitionedProcessor {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(PartitionedProcessor.class);
+
+    private final ItemRepository itemRepository;
+    private final ProcessingLeaseRepository leaseRepository;
+    private final ItemBatchProcessor itemBatchProcessor;
+    private final String instanceId;
+    private final long partitionSize;
+    private final Duration leaseTtl;
+
+    public PartitionedProcessor(ItemRepository itemRepository,
+                                ProcessingLeaseRepository leaseRepository,
+                                ItemBatchProcessor itemBatchProcessor,
+                                InstanceIdentity instanceIdentity,
+                                @Value("${items.processing.partition-size:10000}") long partitionSize,
+                                @Value("${items.processing.lease-ttl-ms:30000}") long leaseTtlMs) {
+        if (partitionSize <= 0 || leaseTtlMs <= 0) {
+            throw new IllegalArgumentException("items.processing.partition-size and items.processing.lease-ttl-ms must be positive");
+        }
+        this.itemRepository = itemRepository;
+        this.leaseRepository = leaseRepository;
+        this.itemBatchProcessor = itemBatchProcessor;
+        this.instanceId = instanceIdentity.getId();
+        this.partitionSize = partitionSize;
+        this.leaseTtl = Duration.ofMillis(leaseTtlMs);
+        LOGGER.info("Partitioned processing as instance {} with partitions of {} ids", this.instanceId, partitionSize);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Proceseaza, pe rand, fiecare partitie cu item-e neprocesate pe care o poate lua.
+     * Viitorul se completeaza cu item-ele procesate de aceasta instanta, dupa ce nu mai ramane nicio partitie libera.
+     */
+    public CompletableFuture<List<Item>> processAll() {
+        List<Long> partitions = new ArrayList<>(itemRepository.findPartitionsWithStatus(Item.STATUS_NEPROCESAT, partitionSize));
+        Collections.sort(partitions);
+        if (!partitions.isEmpty()) {
+            Collections.rotate(partitions, -Math.floorMod(instanceId.hashCode(), partitions.size()));
+        }
+
+        List<Item> itemsProcessed = new ArrayList<>();
+        return processFrom(partitions, 0, itemsProcessed).thenApply(x -> {
+            LOGGER.info("Instance {} finished partitioned processing, processed: {}", instanceId, itemsProcessed.size());
+            return itemsProcessed;
+        });
+    }
+
+    // partitiile sunt procesate una dupa alta; in interiorul unei partitii loturile ruleaza in paralel
+    private CompletableFuture<Void> processFrom(List<Long> partitions, int position, List<Item> itemsProcessed) {
+        for (int i = position; i < partitions.size(); i++) {
+            long partition = partitions.get(i);
+            if (!claim(partition)) {
+                continue;
+            }
+
+            int next = i + 1;
+            long afterId = partition * partitionSize;
+            return itemBatchProcessor.processRange(afterId, afterId + partitionSize, () -> renew(partition), result -> {
+                        synchronized (itemsProcessed) {
+                            itemsProcessed.addAll(result.items());
+                        }
+                    })
+                    .whenComplete((summary, e) -> release(partition))
+                    .thenCompose(summary -> processFrom(partitions, next, itemsProcessed));
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private boolean claim(long partition) {
+        Instant now = Instant.now();
+        if (leaseRepository.claim(partition, instanceId, now.plus(leaseTtl), now) == 1) {
+            return true;
+        }
+        if (leaseRepository.existsById(partition)) {
+            return false;
+        }
+
+        // prima rulare pentru aceasta partitie: randul se creeaza deja luat; daca alta instanta l-a creat intre timp,
+        // cheia primara respinge insert-ul
+        try {
+            return leaseRepository.create(partition, instanceId, now.plus(leaseTtl)) == 1;
+        }
+        catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private boolean renew(long partition) {
+        if (leaseRepository.renew(partition, instanceId, Instant.now().plus(leaseTtl)) == 1) {
+            return true;
+        }
+        LOGGER.warn("Instance {} lost the lease on partition {}, stopping it", instanceId, partition);
+        return false;
+    }
+
+    private void release(long partition) {
+        try {
+            leaseRepository.release(partition, instanceId);
+        }
+        catch (Exception e) {
+            // lease-ul expira oricum dupa lease-ttl
+            LOGGER.error("Could not release the lease on partition {}", partition, e);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.siemens.internship.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Controlul admiterii pentru pornirea procesarilor.
+ * Fiecare client are o limita de cereri (token bucket), cererile concurente pentru aceeasi procesare
+ * se alatura rularii deja pornite in loc sa porneasca una noua, iar peste items.process.max-concurrent-runs
+ * rulari distincte cererea este refuzata imediat, fara sa se puna munca in coada.
+ * Rularile care nu pot fi impartite (job-urile in fundal, procesarile in flux) sunt pornite cu admitSeparate:
+ * nu se alatura altor cereri, dar ocupa un loc din aceeasi limita.
+ * Deciziile sunt numarate in items.process.admission, cu tag-ul outcome.
+ */
+@Service
+public class ProcessingAdmission {
+
+    public enum Outcome {
+        STARTED, JOINED, RATE_LIMITED, OVERLOADED
+    }
+
+    /**
+     * Decizia pentru o cerere. Pentru STARTED si JOINED result este rularea (comuna pentru toti cei care s-au alaturat),
+     * pentru RATE_LIMITED si OVERLOADED result este null si retryAfterSeconds spune cand merita reincercat.
+     */
+    public record Admission<T>(Outcome outcome, CompletableFuture<T> result, long retryAfterSeconds) {
+
+        public boolean admitted() {
+            return outcome == Outcome.STARTED || outcome == Outcome.JOINED;
+        }
+    }
+
+    private final Logger LOGGER = LoggerFactory.getLogger(ProcessingAdmission.class);
+
+    // rularile in curs, dupa cheie (de exemplu modul de procesare)
+    private final Map<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+    // face unice cheile rularilor pornite cu admitSeparate
+    private final AtomicLong separateRuns = new AtomicLong();
+
+    // cate un bucket pentru fiecare client; clientii inactivi sunt scosi automat
+    private final Cache<String, TokenBucket> buckets;
+
+    private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+
+    private final int capacity;
+    private final double tokensPerNano;
+    private final int maxConcurrentRuns;
+    private final long overloadRetryAfterSeconds;
+
+    public ProcessingAdmission(@Value("${items.process.rate-limit.capacity:5}") int capacity,
+                               @Value("${items.process.rate-limit.per-minute:10}") int perMinute,
+                               @Value("${items.process.max-concurrent-runs:1}") int maxConcurrentRuns,
+                               @Value("${items.process.retry-after-seconds:5}") long overloadRetryAfterSeconds,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        if (capacity <= 0 || perMinute <= 0 || maxConcurrentRuns <= 0) {
+            throw new IllegalArgumentException("items.process.rate-limit.* and items.process.max-concurrent-runs must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.maxConcurrentRuns = maxConcurrentRuns;
+        this.overloadRetryAfterSeconds = overloadRetryAfterSeconds;
+
+        // dupa ce un bucket s-a umplut la loc nu mai are rost sa fie tinut in memorie
+        long refillNanos = (long) Math.ceil(capacity / tokensPerNano);
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(refillNanos))
+                .maximumSize(100_000)
+                .build();
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            for (Outcome outcome : Outcome.values()) {
+                outcomes.put(outcome, Counter.builder("items.process.admission")
+                        .description("Admission decisions for processing requests")
+                        .tag("outcome", outcome.name())
+                        .register(registry));
+            }
+        }
+    }
+
+    /**
+     * Consuma un token din bucket-ul clientului.
+     *
+     * @return 0 daca cererea este permisa, altfel numarul de secunde pana la urmatorul token
+     */
+    public long tryAcquire(String clientId) {
+        long retryAfter = buckets.get(clientId, id -> new TokenBucket(capacity, System.nanoTime()))
+                .tryConsume(System.nanoTime(), tokensPerNano, capacity);
+        if (retryAfter > 0) {
+            count(Outcome.RATE_LIMITED);
+            LOGGER.warn("Client {} is over the processing rate limit, retry after {} s", clientId, retryAfter);
+        }
+        return retryAfter;
+    }
+
+    /**
+     * Aplica limita clientului, apoi fie se alatura rularii in curs cu aceeasi cheie, fie porneste una noua cu starter,
+     * daca mai este loc. Rularea este scoasa din lista celor in curs cand se termina, cu succes sau cu eroare.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Admission<T> admit(String clientId, String runKey, Supplier<CompletableFuture<T>> starter) {
+        long retryAfter = tryAcquire(clientId);
+        if (retryAfter > 0) {
+            return new Admission<>(Outcome.RATE_LIMITED, null, retryAfter);
+        }
+
+        // locul este rezervat sub lock cu un future inlocuitor, ca verificarea numarului de rulari si ocuparea
+        // locului sa fie atomice; starter-ul (care poate astepta dupa executor sau scrie in baza de date)
+        // ruleaza in afara lock-ului, deci celelalte cereri nu il asteapta
+        CompletableFuture<T> reserved = new CompletableFuture<>();
+        synchronized (inFlight) {
+            CompletableFuture<T> running = (CompletableFuture<T>) inFlight.get(runKey);
+            if (running != null) {
+                count(Outcome.JOINED);
+                LOGGER.info("Joining in-flight processing run {}", runKey);
+                return new Admission<>(Outcome.JOINED, running, 0);
+            }
+
+            if (inFlight.size() >= maxConcurrentRuns) {
+                return overloaded(runKey);
+            }
+            inFlight.put(runKey, reserved);
+        }
+
+        CompletableFuture<T> started;
+        try {
+            started = starter.get();
+        }
+        catch (RuntimeException e) {
+            // locul este eliberat; cei care s-au alaturat intre timp primesc aceeasi eroare
+            inFlight.remove(runKey, reserved);
+            reserved.completeExceptionally(e);
+            if (e instanceof RejectedExecutionException) {
+                // executorul este plin (TaskRejectedException); cererea este refuzata in loc sa astepte
+                return overloaded(runKey);
+            }
+            throw e;
+        }
+
+        reserved.whenComplete((result, e) -> inFlight.remove(runKey, reserved));
+        started.whenComplete((result, e) -> {
+            if (e != null) {
+                reserved.completeExceptionally(e);
+            }
+            else {
+                reserved.complete(result);
+            }
+        });
+        count(Outcome.STARTED);
+        return new Admission<>(Outcome.STARTED, reserved, 0);
+    }
+
+    /**
+     * La fel ca admit, dar fiecare cerere porneste rularea ei (de exemplu cand rezultatul este trimis in flux
+     * doar clientului care a cerut-o). Rularea ocupa un loc din max-concurrent-runs pana se termina.
+     */
+    public <T> Admission<T> admitSeparate(String clientId, String runKind, Supplier<CompletableFuture<T>> starter) {
+        return admit(clientId, runKind + "#" + separateRuns.incrementAndGet(), starter);
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private <T> Admission<T> overloaded(String runKey) {
+        count(Outcome.OVERLOADED);
+        LOGGER.warn("Rejecting processing run {}, {} run(s) already in flight", runKey, inFlight.size());
+        return new Admission<>(Outcome.OVERLOADED, null, overloadRetryAfterSeconds);
+    }
+
+    private void count(Outcome outcome) {
+        Counter counter = outcomes.get(outcome);
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    private static final class TokenBucket {
+        private double tokens;
+        private long lastRefill;
+
+        private TokenBucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        // 0 daca s-a consumat un token, altfel secundele (rotunjite in sus) pana la urmatorul token
+        synchronized long tryConsume(long now, double tokensPerNano, int capacity) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            long waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        }
+    }
+}
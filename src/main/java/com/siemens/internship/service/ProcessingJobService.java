@@ -0,0 +1,180 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.ProcessingJob;
+import com.siemens.internship.model.ProcessingJobStatus;
+import com.siemens.internship.repository.ProcessingJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Porneste procesari pe loturi ca job-uri in fundal si le salveaza progresul in baza de date.
+ * Dupa fiecare lot se salveaza checkpoint-ul, iar job-urile ramase RUNNING dupa o repornire sunt reluate de acolo.
+ * Loturile terminate dupa checkpoint dar inainte de intrerupere sunt procesate din nou la reluare,
+ * deci contoarele pot numara de doua ori acele item-e.
+ * Fiecare job are un owner (InstanceIdentity), care ii actualizeaza updatedAt cat timp il ruleaza. La pornire
+ * se reiau doar job-urile acestei instante si cele al caror owner nu a mai actualizat updatedAt de
+ * job-heartbeat-timeout-ms; job-urile rulate in acel moment de alte instante sunt lasate in pace.
+ */
+@Service
+public class ProcessingJobService {
+
+    @Autowired
+    private ProcessingJobRepository processingJobRepository;
+
+    @Autowired
+    private ItemBatchProcessor itemBatchProcessor;
+
+    @Autowired
+    private InstanceIdentity instanceIdentity;
+
+    @Value("${items.processing.job-heartbeat-timeout-ms:120000}")
+    private long heartbeatTimeoutMs;
+
+    private final Logger LOGGER = LoggerFactory.getLogger(ProcessingJobService.class);
+
+    // job-urile rulate acum de aceasta instanta, al caror heartbeat este actualizat periodic
+    private final Set<Long> runningJobs = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService heartbeats;
+
+    /**
+     * Job-ul tocmai creat si rularea lui; completion se termina cu starea finala a job-ului (COMPLETED sau FAILED).
+     */
+    public record StartedJob(ProcessingJob job, CompletableFuture<ProcessingJob> completion) {
+    }
+
+    /**
+     * Creeaza un job nou si il porneste in fundal; metoda returneaza imediat.
+     */
+    public StartedJob startJob() {
+        ProcessingJob job = new ProcessingJob();
+        job.setCheckpointId(ItemBatchProcessor.START_ID);
+        job.setOwner(instanceIdentity.getId());
+        job.setCreatedAt(Instant.now());
+        job.setUpdatedAt(job.getCreatedAt());
+        job = processingJobRepository.save(job);
+
+        LOGGER.info("Started processing job {}", job.getId());
+        return new StartedJob(job, run(job));
+    }
+
+    public Optional<ProcessingJob> findById(Long id) {
+        return processingJobRepository.findById(id);
+    }
+
+    /**
+     * Porneste heartbeat-ul job-urilor si reia job-urile care erau in executie cand aplicatia s-a oprit.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // de cateva ori intr-un timeout, ca o intarziere ocazionala sa nu faca job-ul sa para abandonat
+        long interval = Math.max(1, heartbeatTimeoutMs / 3);
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "processing-job-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+
+        resumeInterruptedJobs();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+        }
+    }
+
+    /**
+     * Reia job-urile RUNNING ale acestei instante si pe cele abandonate de alte instante (fara heartbeat de
+     * job-heartbeat-timeout-ms). Fiecare job este preluat cu un UPDATE conditionat, deci de o singura instanta.
+     */
+    public List<CompletableFuture<ProcessingJob>> resumeInterruptedJobs() {
+        String owner = instanceIdentity.getId();
+        Instant now = Instant.now();
+        Instant staleBefore = now.minus(Duration.ofMillis(heartbeatTimeoutMs));
+
+        List<CompletableFuture<ProcessingJob>> resumed = new ArrayList<>();
+        for (ProcessingJob job : processingJobRepository.findByStatus(ProcessingJobStatus.RUNNING)) {
+            if (runningJobs.contains(job.getId())
+                    || processingJobRepository.claimForResume(job.getId(), owner, now, staleBefore) != 1) {
+                continue;
+            }
+            LOGGER.info("Resuming processing job {} (previous owner {}) from checkpoint ID {}",
+                    job.getId(), job.getOwner(), job.getCheckpointId());
+            resumed.add(run(job));
+        }
+        return resumed;
+    }
+
+    private CompletableFuture<ProcessingJob> run(ProcessingJob job) {
+        Long jobId = job.getId();
+        runningJobs.add(jobId);
+
+        CompletableFuture<ItemBatchProcessor.BatchSummary> summary;
+        try {
+            summary = itemBatchProcessor.process(job.getCheckpointId(), result -> processingJobRepository.addProgress(
+                    jobId, result.checkpointId(), result.processed(), result.failed(), Instant.now()));
+        }
+        catch (RejectedExecutionException e) {
+            // executorul este plin; job-ul nu ramane RUNNING (cu heartbeat, deci niciodata reluat), ci este marcat FAILED
+            finish(jobId, e);
+            throw e;
+        }
+        return summary.handle((result, e) -> finish(jobId, e));
+    }
+
+    // marcheaza job-ul ca terminat (sau esuat) dupa ultimul lot
+    private ProcessingJob finish(Long jobId, Throwable error) {
+        runningJobs.remove(jobId);
+        ProcessingJob job = processingJobRepository.findById(jobId).orElseThrow();
+        job.setFinishedAt(Instant.now());
+        job.setUpdatedAt(job.getFinishedAt());
+
+        if (error == null) {
+            job.setStatus(ProcessingJobStatus.COMPLETED);
+            LOGGER.info("Processing job {} completed, processed: {}, failed: {}", jobId, job.getProcessedCount(), job.getFailedCount());
+        }
+        else {
+            job.setStatus(ProcessingJobStatus.FAILED);
+            job.setLastError(StringUtils.truncate(String.valueOf(error.getMessage()), 1000));
+            LOGGER.error("Processing job {} failed", jobId, error);
+        }
+
+        return processingJobRepository.save(job);
+    }
+
+    private void heartbeat() {
+        if (runningJobs.isEmpty()) {
+            return;
+        }
+        try {
+            processingJobRepository.heartbeat(List.copyOf(runningJobs), instanceIdentity.getId(), Instant.now());
+        }
+        catch (Exception e) {
+            // urmatorul heartbeat incearca din nou
+            LOGGER.error("Could not update the heartbeat of processing jobs {}", runningJobs, e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.config.CacheConfig;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemFilter;
+import com.siemens.internship.repository.ReactiveItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Varianta non-blocanta a lui ItemService, folosita de ReactiveItemController.
+ * Foloseste acelasi cache de item-e si aceiasi ItemProcessor-i (prin ItemProcessingPipeline) ca varianta MVC.
+ * Procesarea este un Flux: id-urile neprocesate sunt grupate in loturi, cel mult items.processing.parallelism
+ * loturi sunt in lucru in acelasi timp, iar pasul CPU ruleaza pe pool-ul CPU al pipeline-ului.
+ * Niciun thread nu asteapta terminarea unui lot, spre deosebire de CompletableFuture.allOf din processItemsAsync.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemService {
+
+    private final Logger LOGGER = LoggerFactory.getLogger(ReactiveItemService.class);
+
+    private final ReactiveItemRepository itemRepository;
+    private final ItemProcessingPipeline itemProcessingPipeline;
+    private final Cache itemCache;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Counter processedItems;
+    private final Counter failedItems;
+    private final Counter skippedItems;
+
+    public ReactiveItemService(ReactiveItemRepository itemRepository,
+                               ItemProcessingPipeline itemProcessingPipeline,
+                               CacheManager cacheManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${items.processing.chunk-size:500}") int chunkSize,
+                               @Value("${items.processing.parallelism:4}") int parallelism) {
+        if (chunkSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("items.processing.chunk-size and items.processing.parallelism must be positive");
+        }
+        this.itemRepository = itemRepository;
+        this.itemProcessingPipeline = itemProcessingPipeline;
+        this.itemCache = Objects.requireNonNull(cacheManager.getCache(CacheConfig.ITEMS_CACHE));
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.processedItems = Counter.builder("items.processed").tag("mode", "reactive").register(meterRegistry);
+        this.failedItems = Counter.builder("items.failed").tag("mode", "reactive").register(meterRegistry);
+        // acelasi contor ca in ItemProcessingPipeline
+        this.skippedItems = Counter.builder("items.skipped").register(meterRegistry);
+    }
+
+    public Flux<Item> findPage(ItemFilter filter, long afterId, int limit) {
+        return itemRepository.findPage(filter, afterId, limit);
+    }
+
+    public Flux<Map<String, Object>> findPageProjected(ItemFilter filter, long afterId, int limit, List<String> fields) {
+        return itemRepository.findPageProjected(filter, afterId, limit, fields);
+    }
+
+    public Flux<Item> exportAll() {
+        return itemRepository.findAllOrderById();
+    }
+
+    // citirile dupa id trec prin cache; id-urile inexistente nu sunt puse in cache
+    public Mono<Item> findById(long id) {
+        Item cached = itemCache.get(id, Item.class);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return itemRepository.findById(id)
+                .doOnNext(item -> itemCache.put(id, item));
+    }
+
+    public Mono<Item> create(Item item) {
+        item.setId(null);
+        return itemRepository.insert(item)
+                .doOnNext(saved -> itemCache.put(saved.getId(), saved));
+    }
+
+    /**
+     * Suprascrie item-ul existent. Daca item-ul nu are versiune se foloseste versiunea curenta,
+     * altfel o versiune veche duce la OptimisticLockingFailureException, ca in varianta MVC.
+     *
+     * @return item-ul salvat, sau gol daca nu exista
+     */
+    public Mono<Item> update(long id, Item item) {
+        return findById(id)
+                .flatMap(existing -> {
+                    item.setId(id);
+                    if (item.getVersion() == null) {
+                        item.setVersion(existing.getVersion());
+                    }
+                    return itemRepository.update(item)
+                            .switchIfEmpty(Mono.defer(() -> {
+                                // versiunea din cache poate fi mai veche decat cea din baza de date
+                                itemCache.evict(id);
+                                return Mono.error(new OptimisticLockingFailureException("Item " + id + " was modified concurrently"));
+                            }));
+                })
+                .doOnNext(saved -> itemCache.put(id, saved));
+    }
+
+    // true daca item-ul a existat si a fost sters
+    public Mono<Boolean> deleteById(long id) {
+        return itemRepository.deleteById(id)
+                .map(rows -> rows > 0)
+                .doOnNext(deleted -> itemCache.evict(id));
+    }
+
+    /**
+     * Proceseaza toate item-ele NEPROCESAT, in loturi de items.processing.chunk-size
+     * (sau cate unul, cu perItem = true, echivalentul lui mode=single).
+     * Rezultatele loturilor sunt emise in ordinea id-urilor, chiar daca loturile se termina in alta ordine,
+     * asa ca checkpointId-ul fiecarui rezultat este chiar ultimul id din lot.
+     */
+    public Flux<ItemBatchProcessor.ChunkResult> process(boolean perItem) {
+        return itemRepository.findIdsByStatus(Item.STATUS_NEPROCESAT)
+                .buffer(perItem ? 1 : chunkSize)
+                .index()
+                .flatMapSequential(chunk -> processChunk(chunk.getT1(), chunk.getT2()), parallelism)
+                .doOnNext(result -> {
+                    processedItems.increment(result.processed());
+                    failedItems.increment(result.failed());
+                });
+    }
+
+    private Mono<ItemBatchProcessor.ChunkResult> processChunk(long sequence, List<Long> ids) {
+        long lastId = ids.get(ids.size() - 1);
+
+        return itemRepository.findByIdInAndStatus(ids, Item.STATUS_NEPROCESAT)
+                .collectList()
+                .flatMap(items -> Mono.fromFuture(() -> itemProcessingPipeline.applyProcessors(items))
+                        .flatMap(failedIds -> save(items, failedIds)
+                                .map(saved -> new ItemBatchProcessor.ChunkResult(
+                                        sequence, saved, saved.size(), failedIds.size(), lastId, lastId))))
+                .onErrorResume(e -> {
+                    // un lot esuat nu opreste restul procesarii
+                    LOGGER.error("Error while processing chunk {} ending at ID {}", sequence, lastId, e);
+                    return Mono.just(new ItemBatchProcessor.ChunkResult(sequence, List.of(), 0, ids.size(), lastId, lastId));
+                });
+    }
+
+    // item-ele respinse de un ItemProcessor raman NEPROCESAT; cele salvate inlocuiesc intrarile din cache,
+    // iar cele modificate intre citire si salvare sunt lasate pentru o rulare ulterioara si numarate in items.skipped
+    private Mono<List<Item>> save(List<Item> items, Set<Long> failedIds) {
+        List<Item> results = items.stream()
+                .filter(item -> !failedIds.contains(item.getId()))
+                .toList();
+
+        return itemRepository.markProcessed(results)
+                .doOnNext(item -> CacheConfig.replaceIfPresent(itemCache, item.getId(), item))
+                .collectList()
+                .doOnNext(saved -> skippedItems.increment(results.size() - saved.size()));
+    }
+}
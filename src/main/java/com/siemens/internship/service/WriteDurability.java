@@ -0,0 +1,15 @@
+package com.siemens.internship.service;
+
+/**
+ * Cand se considera terminata procesarea unui item trecut prin ItemWriteBuffer
+ * (items.processing.write-behind.durability).
+ */
+public enum WriteDurability {
+    // future-ul item-ului se completeaza dupa ce lotul in care a fost scris a facut commit
+    SYNC,
+
+    // future-ul se completeaza imediat ce rezultatul a intrat in buffer; scrierea are loc mai tarziu,
+    // iar la o oprire brusca a procesului rezultatele din buffer se pierd (item-ele raman NEPROCESAT);
+    // item-ul intors are deja statusul PROCESSED si versiunea pe care le va avea dupa scriere
+    ASYNC
+}
@@ -0,0 +1,51 @@
+-- Schema initiala, identica cu cea generata pana acum de Hibernate (spring.jpa.hibernate.ddl-auto=update).
+-- Modificarile ulterioare ale entitatilor se adauga ca migrari noi (V2__..., V3__...), nu prin editarea acestui fisier.
+
+CREATE SEQUENCE item_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE processing_job_seq START WITH 1 INCREMENT BY 50;
+
+-- numarul de ordine al modificarilor de item-e (fluxul de modificari), vezi Item.changeSeq
+CREATE SEQUENCE item_change_seq;
+
+CREATE TABLE item (
+    id BIGINT NOT NULL,
+    name VARCHAR(255),
+    description VARCHAR(255),
+    status VARCHAR(255),
+    email VARCHAR(255),
+    version BIGINT,
+    change_seq BIGINT DEFAULT NEXT VALUE FOR item_change_seq ON UPDATE NEXT VALUE FOR item_change_seq,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_item_status_id ON item (status, id);
+CREATE INDEX idx_item_email ON item (email);
+CREATE INDEX idx_item_change_seq ON item (change_seq);
+CREATE INDEX idx_item_status_change_seq ON item (status, change_seq);
+
+CREATE TABLE processing_job (
+    id BIGINT NOT NULL,
+    status ENUM ('COMPLETED', 'FAILED', 'RUNNING'),
+    checkpoint_id BIGINT NOT NULL,
+    processed_count INTEGER NOT NULL,
+    failed_count INTEGER NOT NULL,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP(6) WITH TIME ZONE,
+    updated_at TIMESTAMP(6) WITH TIME ZONE,
+    finished_at TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE processing_watermark (
+    name VARCHAR(255) NOT NULL,
+    change_seq BIGINT NOT NULL,
+    updated_at TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (name)
+);
+
+CREATE TABLE processing_lease (
+    partition_id BIGINT NOT NULL,
+    owner VARCHAR(255),
+    leased_until TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (partition_id)
+);
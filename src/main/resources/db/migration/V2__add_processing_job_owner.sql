@@ -0,0 +1,2 @@
+-- instanta care ruleaza job-ul; job-urile existente nu au owner si pot fi reluate de oricine
+ALTER TABLE processing_job ADD COLUMN owner VARCHAR(255);
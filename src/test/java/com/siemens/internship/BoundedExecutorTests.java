@@ -0,0 +1,66 @@
+package com.siemens.internship;
+
+import com.siemens.internship.config.BoundedExecutor;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoundedExecutorTests {
+
+    @Test
+    void execute_neverRunsMoreThanTheLimitAndNeverRejects() throws Exception {
+        BoundedExecutor executor = new BoundedExecutor(new SimpleAsyncTaskExecutor(), 3);
+        AtomicInteger running = new AtomicInteger(0);
+        AtomicInteger maxRunning = new AtomicInteger(0);
+        CountDownLatch done = new CountDownLatch(50);
+
+        for (int i = 0; i < 50; i++) {
+            executor.execute(() -> {
+                int now = running.incrementAndGet();
+                maxRunning.accumulateAndGet(now, Math::max);
+                try {
+                    Thread.sleep(5);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() <= 3);
+
+        // permisiunea se elibereaza dupa ce task-ul s-a terminat, deci poate ajunge putin dupa countDown()
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getAvailablePermits() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(3, executor.getAvailablePermits());
+    }
+
+    @Test
+    void execute_releasesPermitWhenDelegateRejects() {
+        BoundedExecutor executor = new BoundedExecutor(task -> {
+            throw new IllegalStateException("rejected");
+        }, 1);
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                executor.execute(() -> { });
+            }
+            catch (IllegalStateException expected) {
+                // permisiunea trebuie eliberata, altfel al doilea apel ar bloca
+            }
+        }
+
+        assertEquals(1, executor.getAvailablePermits());
+    }
+}
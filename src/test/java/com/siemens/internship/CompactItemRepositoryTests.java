@@ -0,0 +1,148 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.CompactItemRepository;
+import com.siemens.internship.repository.ItemFilter;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemService;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// citirile din ItemService servite de store-ul compact, pe o baza de date separata
+@SpringBootTest(properties = {
+        "items.store.compact.snapshot-path=",
+        "items.store.compact.refresh-ms=50",
+        "items.changes.settle-ms=50"})
+// separat, ca DeleteCheck sa le poata inlocui (proprietatile din @SpringBootTest au prioritate)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:compact-store",
+        "items.store.compact.reconcile-ms=500"})
+@ActiveProfiles("edge")
+public class CompactItemRepositoryTests {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private CompactItemRepository compactItemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void reads_followWritesFromEveryPath() throws Exception {
+        assertTrue(compactItemRepository.isReady());
+
+        // scrierile prin ItemService sunt vizibile imediat
+        Item saved = itemService.save(new Item(null, "item", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+        assertEquals("item", itemService.findById(saved.getId()).orElseThrow().getName());
+
+        // modificarile facute direct in SQL ajung prin fluxul de modificari, stergerile prin comparatia id-urilor
+        jdbcTemplate.update("UPDATE item SET name = 'renamed', status = 'PROCESSED' WHERE id = ?", saved.getId());
+        awaitTrue(() -> "renamed".equals(itemService.findById(saved.getId()).orElseThrow().getName()));
+        assertEquals(1, itemService.findPage(new ItemFilter(Item.STATUS_PROCESSED, null), 0, 10).size());
+
+        jdbcTemplate.update("DELETE FROM item WHERE id = ?", saved.getId());
+        awaitTrue(() -> itemService.findById(saved.getId()).isEmpty());
+    }
+
+    @Test
+    void reconciliation_picksUpAChangeTheFeedSkipped() throws Exception {
+        assertTrue(compactItemRepository.isReady());
+
+        // tranzactia tine change_seq-ul ei mai mult decat items.changes.settle-ms, deci fluxul trece de el inainte de commit
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Item> slow = CompletableFuture.supplyAsync(() -> new TransactionTemplate(transactionManager).execute(status -> {
+            Item item = itemRepository.saveAndFlush(new Item(null, "slow", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+            inserted.countDown();
+            try {
+                commit.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return item;
+        }));
+        inserted.await();
+        jdbcTemplate.update("INSERT INTO item (id, name, description, status, email, version) " +
+                "VALUES (NEXT VALUE FOR item_seq, 'fast', 'description', 'NEPROCESAT', 'valid@mail.com', 0)");
+        awaitTrue(() -> compactItemRepository.findPage(ItemFilter.NONE, 0, 1000).stream()
+                .anyMatch(item -> "fast".equals(item.getName())));
+
+        commit.countDown();
+        Item committed = slow.join();
+        awaitTrue(() -> compactItemRepository.findById(committed.getId()).isPresent());
+    }
+
+    // fara reconcile, doar verificarea stergerilor poate scoate item-ul; o baza de date separata, ca id-urile sa fie cunoscute
+    @Nested
+    @TestPropertySource(properties = {
+            "spring.datasource.url=jdbc:h2:mem:compact-store-deletes",
+            "items.store.compact.reconcile-ms=0",
+            "items.store.compact.delete-check-ms=100"})
+    class DeleteCheck {
+
+        // campurile clasei exterioare vin din contextul ei, cu reconcile pornit
+        @Autowired
+        private ItemService itemService;
+
+        @Autowired
+        private CompactItemRepository compactItemRepository;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private ItemRepository itemRepository;
+
+        @Autowired
+        private PlatformTransactionManager transactionManager;
+
+        @Test
+        void deleteHiddenByAnInsert_isStillRemoved() throws Exception {
+            assertTrue(compactItemRepository.isReady());
+            Item deleted = itemService.save(new Item(null, "deleted", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+            Item kept = itemService.save(new Item(null, "kept", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+
+            // item-ul nou are un change_seq deja trecut, deci fluxul nu il aduce in store: store-ul si tabela raman
+            // cu acelasi numar de item-e, desi unul a fost sters
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM item WHERE id = ?", deleted.getId());
+                jdbcTemplate.update("INSERT INTO item (id, name, description, status, email, version, change_seq) " +
+                        "VALUES (NEXT VALUE FOR item_seq, 'hidden', 'description', 'NEPROCESAT', 'valid@mail.com', 0, 0)");
+            });
+
+            awaitTrue(() -> compactItemRepository.findById(deleted.getId()).isEmpty());
+            assertTrue(compactItemRepository.findById(kept.getId()).isPresent());
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 10 s");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.CompactItemStore;
+import com.siemens.internship.repository.IdChecksum;
+import com.siemens.internship.repository.ItemFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompactItemStoreTests {
+
+    @Test
+    void putGetRemove_keepsTheNewestStateOfEachItem() {
+        CompactItemStore store = new CompactItemStore(true, 4);
+        for (long id = 1; id <= 1000; id++) {
+            store.put(item(id, "item" + id, Item.STATUS_NEPROCESAT, "mail" + (id % 3) + "@mail.com", 0L, id));
+        }
+        assertEquals(1000, store.size());
+
+        Item stored = store.get(500);
+        assertEquals("item500", stored.getName());
+        assertEquals("mail2@mail.com", stored.getEmail());
+        assertEquals(500L, stored.getChangeSeq());
+
+        // o versiune mai noua inlocuieste item-ul, una mai veche este ignorata
+        assertTrue(store.put(item(500, "renamed", Item.STATUS_PROCESSED, "mail2@mail.com", 1L, 2000L)));
+        assertFalse(store.put(item(500, "stale", Item.STATUS_NEPROCESAT, "mail2@mail.com", 0L, 500L)));
+        assertEquals("renamed", store.get(500).getName());
+        assertEquals(Item.STATUS_PROCESSED, store.get(500).getStatus());
+
+        // campurile null raman null
+        store.put(item(1001, null, null, null, null, null));
+        Item empty = store.get(1001);
+        assertNull(empty.getName());
+        assertNull(empty.getStatus());
+        assertNull(empty.getVersion());
+
+        assertTrue(store.remove(2));
+        assertFalse(store.remove(2));
+        assertNull(store.get(2));
+        store.put(item(2, "again", Item.STATUS_NEPROCESAT, "mail@mail.com", 0L, 3000L));
+        assertEquals("again", store.get(2).getName());
+        assertEquals(1001, store.size());
+    }
+
+    @Test
+    void randomOperations_matchAHashMap() {
+        CompactItemStore store = new CompactItemStore(false, 16);
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            long id = 1 + random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id) != null, store.remove(id));
+            }
+            else {
+                String name = "item" + i;
+                store.put(item(id, name, Item.STATUS_NEPROCESAT, "valid@mail.com", (long) i, (long) i));
+                expected.put(id, name);
+            }
+        }
+
+        assertEquals(expected.size(), store.size());
+        for (long id = 1; id <= 2000; id++) {
+            Item item = store.get(id);
+            assertEquals(expected.get(id), item == null ? null : item.getName());
+        }
+        assertEquals(expected.keySet().stream().sorted().toList(), ids(store.findPage(ItemFilter.NONE, 0, 5000)));
+    }
+
+    @Test
+    void findPage_matchesTheRepositorySemantics() {
+        CompactItemStore store = new CompactItemStore(false, 16);
+        // inserate in ordine inversa, ca lista sortata de id-uri sa nu fie construita doar prin adaugare la final
+        for (long id = 100; id >= 1; id--) {
+            store.put(item(id, "item" + id, id % 2 == 0 ? Item.STATUS_PROCESSED : Item.STATUS_NEPROCESAT,
+                    id % 5 == 0 ? "five@mail.com" : "other@mail.com", 0L, 101 - id));
+        }
+        store.remove(5);
+
+        assertEquals(List.of(1L, 2L, 3L), ids(store.findPage(ItemFilter.NONE, 0, 3)));
+        assertEquals(List.of(4L, 6L), ids(store.findPage(ItemFilter.NONE, 3, 2)));
+        assertEquals(List.of(15L, 25L, 35L), ids(store.findPage(new ItemFilter(Item.STATUS_NEPROCESAT, "five@mail.com"), 0, 3)));
+        assertEquals(List.of(12L, 14L), ids(store.findPage(new ItemFilter(Item.STATUS_PROCESSED, null), 10, 2)));
+        assertTrue(store.findPage(new ItemFilter("UNKNOWN", null), 0, 10).isEmpty());
+        assertTrue(store.findPage(ItemFilter.NONE, 100, 10).isEmpty());
+    }
+
+    @Test
+    void idChecksumAndIdsNotIn_seeADeleteHiddenByAnInsert() {
+        CompactItemStore store = new CompactItemStore(false, 16);
+        for (long id = 1; id <= 10; id++) {
+            store.put(item(id, "item" + id, Item.STATUS_NEPROCESAT, "mail@mail.com", 0L, id));
+        }
+        assertEquals(new IdChecksum(10, 55), store.idChecksum());
+        assertEquals(10, store.maxId());
+
+        // comparatia pe pagini de id-uri din tabela: fiecare pagina acopera intervalul ei de id-uri din store
+        assertEquals(List.of(4L), store.idsNotIn(0, 5, new long[]{1, 2, 3, 5}));
+        assertEquals(List.of(), store.idsNotIn(5, 8, new long[]{6, 7, 8}));
+        assertEquals(List.of(10L), store.idsNotIn(8, Long.MAX_VALUE, new long[]{9, 11}));
+
+        store.remove(4);
+        assertEquals(new IdChecksum(9, 51), store.idChecksum());
+        assertEquals(List.of(), store.idsNotIn(0, 5, new long[]{1, 2, 3, 5}));
+    }
+
+    @Test
+    void snapshot_restoresEveryItem(@TempDir Path directory) throws Exception {
+        CompactItemStore store = new CompactItemStore(true, 16);
+        for (long id = 1; id <= 300; id++) {
+            store.put(item(id, "item" + id, id % 2 == 0 ? Item.STATUS_PROCESSED : Item.STATUS_NEPROCESAT,
+                    "ă" + id + "@mail.com", id, id));
+        }
+        store.remove(7);
+        store.advanceChangeSeq(300);
+
+        Path snapshot = directory.resolve("items.snapshot");
+        store.writeSnapshot(snapshot);
+        CompactItemStore restored = CompactItemStore.readSnapshot(snapshot, false);
+
+        assertEquals(299, restored.size());
+        assertEquals(300, restored.getLastChangeSeq());
+        assertNull(restored.get(7));
+        Item item = restored.get(8);
+        assertEquals("item8", item.getName());
+        assertEquals(Item.STATUS_PROCESSED, item.getStatus());
+        assertEquals("ă8@mail.com", item.getEmail());
+        assertEquals(8L, item.getVersion());
+        assertEquals(List.of(9L, 11L), ids(restored.findPage(new ItemFilter(Item.STATUS_NEPROCESAT, null), 7, 2)));
+    }
+
+    private static Item item(long id, String name, String status, String email, Long version, Long changeSeq) {
+        Item item = new Item(id, name, "description", status, email);
+        item.setVersion(version);
+        item.setChangeSeq(changeSeq);
+        return item;
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).toList();
+    }
+}
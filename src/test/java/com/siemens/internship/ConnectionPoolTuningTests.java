@@ -0,0 +1,58 @@
+package com.siemens.internship;
+
+import com.siemens.internship.config.BoundedExecutor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// profilul "perf": pool fix de conexiuni, executorul limitat la conexiunile ramase dupa cele rezervate cererilor HTTP;
+// baza de date este separata, ca setarile H2 sa fie cele din profil si nu ale bazei deschise de alte teste
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:perf-tuning")
+@ActiveProfiles("perf")
+public class ConnectionPoolTuningTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("taskExecutor")
+    private Executor taskExecutor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void executorConcurrencyFollowsThePoolSize() {
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+        assertEquals(16, hikari.getMaximumPoolSize());
+        assertEquals(16, hikari.getMinimumIdle());
+
+        assertTrue(taskExecutor instanceof BoundedExecutor);
+        assertEquals(12, ((BoundedExecutor) taskExecutor).getMaxConcurrency());
+    }
+
+    @Test
+    void statementCacheAndPoolWaitMetricsAreEnabled() {
+        String queryCacheSize = jdbcTemplate.queryForObject(
+                "SELECT SETTING_VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE SETTING_NAME = 'QUERY_CACHE_SIZE'", String.class);
+        assertEquals("64", queryCacheSize);
+
+        // timpul de asteptare pentru o conexiune din pool
+        assertNotNull(meterRegistry.find("hikaricp.connections.acquire").timer());
+    }
+}
@@ -1,30 +1,51 @@
 package com.siemens.internship;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.siemens.internship.controller.ItemController;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ProcessingJob;
+import com.siemens.internship.repository.ItemFilter;
+import com.siemens.internship.service.ItemBatchProcessor;
 import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ProcessingAdmission;
+import com.siemens.internship.service.ProcessingJobService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ItemController.class)
+@Import(ProcessingAdmission.class)
 public class InternshipApplicationTests {
 
     @Autowired
@@ -33,6 +54,9 @@ public class InternshipApplicationTests {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private ProcessingJobService processingJobService;
+
     @Test
     void createItem_test_success() throws Exception {
         Item item = new Item();
@@ -96,7 +120,7 @@ public class InternshipApplicationTests {
     void updateItem_test_success() throws Exception {
         Item modifiedItem = new Item(1L, "modifiedItem", "description", "NEPROCESAT", "valid@mail.com");
 
-        when(itemService.findById(1L)).thenReturn(Optional.of(new Item()));
+        when(itemService.findCurrentById(1L)).thenReturn(Optional.of(new Item()));
         when(itemService.save(any(Item.class))).thenReturn(modifiedItem);
 
         String jsonBody = """
@@ -116,7 +140,7 @@ public class InternshipApplicationTests {
 
     @Test
     void updateItem_test_failure() throws Exception {
-        when(itemService.findById(10L)).thenReturn(Optional.empty());
+        when(itemService.findCurrentById(10L)).thenReturn(Optional.empty());
 
         String jsonBody = """
             {
@@ -157,4 +181,183 @@ public class InternshipApplicationTests {
         mockMvc.perform(get("/api/items/process"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void processItems_batch_test_success() throws Exception {
+        List<Item> itemList = List.of(new Item(1L, "item", "description", "PROCESSED", "valid@mail.com"));
+
+        when(itemService.processItemsInBatchesAsync()).thenReturn(CompletableFuture.completedFuture(itemList));
+
+        mockMvc.perform(get("/api/items/process").param("mode", "batch"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("PROCESSED")));
+    }
+
+    @Test
+    void processItems_unknownMode_test_failure() throws Exception {
+        mockMvc.perform(get("/api/items/process").param("mode", "whatever"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void processItemsStream_test_success() throws Exception {
+        List<Item> chunk = List.of(new Item(1L, "item", "description", "PROCESSED", "valid@mail.com"));
+
+        when(itemService.processItemsStreaming(any())).thenAnswer(invocation -> {
+            ItemBatchProcessor.ChunkListener listener = invocation.getArgument(0);
+            listener.onChunk(new ItemBatchProcessor.ChunkResult(0, chunk, 1, 1, 2L, 2L));
+            return CompletableFuture.completedFuture(new ItemBatchProcessor.BatchSummary(1, 1));
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/items/process/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // liniile sunt scrise de ProgressLineSender pe un alt fir, se asteapta inchiderea raspunsului
+        result.getAsyncResult(5000);
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"type\":\"chunk\"")))
+                .andExpect(content().string(containsString("\"type\":\"summary\",\"processed\":1,\"failed\":1")));
+    }
+
+    @Test
+    void startProcessingJob_test_success() throws Exception {
+        ProcessingJob job = new ProcessingJob();
+        job.setId(5L);
+
+        when(processingJobService.startJob())
+                .thenReturn(new ProcessingJobService.StartedJob(job, CompletableFuture.completedFuture(job)));
+
+        mockMvc.perform(post("/api/items/process"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", containsString("/api/items/process/5")))
+                .andExpect(content().string(containsString("RUNNING")));
+    }
+
+    @Test
+    void getProcessingJob_test_failure() throws Exception {
+        when(processingJobService.findById(10L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/items/process/10"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getAllItems_test_nextPageHeader() throws Exception {
+        List<Item> page = List.of(
+                new Item(3L, "item3", "description", "NEPROCESAT", "valid@mail.com"),
+                new Item(4L, "item4", "description", "NEPROCESAT", "valid@mail.com"));
+
+        when(itemService.findPage(ItemFilter.NONE, 2L, 2)).thenReturn(page);
+
+        mockMvc.perform(get("/api/items").param("after", "2").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-After", "4"))
+                .andExpect(content().string(containsString("item4")));
+    }
+
+    @Test
+    void getAllItems_test_projection() throws Exception {
+        when(itemService.findPageProjected(ItemFilter.NONE, 0L, 100, List.of("id", "status")))
+                .thenReturn(List.of(Map.of("id", 1L, "status", "NEPROCESAT")));
+
+        mockMvc.perform(get("/api/items").param("fields", "status"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-After"))
+                .andExpect(content().string(containsString("\"status\":\"NEPROCESAT\"")));
+    }
+
+    @Test
+    void getAllItems_test_unknownField() throws Exception {
+        mockMvc.perform(get("/api/items").param("fields", "id,password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updateItem_test_conflict() throws Exception {
+        when(itemService.findCurrentById(1L)).thenReturn(Optional.of(new Item()));
+        when(itemService.save(any(Item.class))).thenThrow(new ObjectOptimisticLockingFailureException(Item.class, 1L));
+
+        String jsonBody = """
+            {
+                "name": "modifiedItem",
+                "description": "description",
+                "email": "valid@mail.com",
+                "version": 3
+            }
+            """;
+
+        mockMvc.perform(put("/api/items/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonBody))
+                .andExpect(status().isConflict());
+
+        // o reincercare nu trebuie sa primeasca din cache starea care a produs conflictul
+        verify(itemService).evictStale(1L);
+    }
+
+    @Test
+    void getAllItems_test_filterByStatusAndEmail() throws Exception {
+        when(itemService.findPage(new ItemFilter("PROCESSED", "valid@mail.com"), 0L, 100))
+                .thenReturn(List.of(new Item(1L, "item", "description", "PROCESSED", "valid@mail.com")));
+
+        mockMvc.perform(get("/api/items").param("status", "PROCESSED").param("email", "valid@mail.com"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"status\":\"PROCESSED\"")));
+    }
+
+    @Test
+    void getAllItems_test_wireFormat() throws Exception {
+        Item item = new Item(1L, "item", null, "NEPROCESAT", "valid@mail.com");
+        item.setVersion(2L);
+        when(itemService.findPage(ItemFilter.NONE, 0L, 100)).thenReturn(List.of(item));
+
+        // aceleasi campuri, in aceeasi ordine, ca la serializarea entitatii
+        mockMvc.perform(get("/api/items"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[{\"id\":1,\"name\":\"item\",\"description\":null,\"status\":\"NEPROCESAT\"," +
+                        "\"email\":\"valid@mail.com\",\"version\":2}]"));
+    }
+
+    @Test
+    void getAllItems_test_binaryFormats() throws Exception {
+        when(itemService.findPage(ItemFilter.NONE, 0L, 100))
+                .thenReturn(List.of(new Item(1L, "item", "description", "NEPROCESAT", "valid@mail.com")));
+
+        byte[] smile = mockMvc.perform(get("/api/items").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode smileItems = new ObjectMapper(new SmileFactory()).readTree(smile);
+        assertEquals("item", smileItems.get(0).get("name").asText());
+
+        byte[] cbor = mockMvc.perform(get("/api/items").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode cborItems = new ObjectMapper(new CBORFactory()).readTree(cbor);
+        assertEquals(1L, cborItems.get(0).get("id").asLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportItems_test_writesTheSameShapeAsTheLists() throws Exception {
+        Item item = new Item(1L, "item", null, "NEPROCESAT", "valid@mail.com");
+        item.setVersion(2L);
+        item.setChangeSeq(17L);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Item>>getArgument(0).accept(item);
+            return null;
+        }).when(itemService).exportAll(any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/items/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // corpul este scris pe un alt fir, se asteapta terminarea lui
+        result.getAsyncResult(5000);
+        assertEquals("{\"id\":1,\"name\":\"item\",\"description\":null,\"status\":\"NEPROCESAT\"," +
+                        "\"email\":\"valid@mail.com\",\"version\":2}\n",
+                result.getResponse().getContentAsString());
+    }
 }
@@ -0,0 +1,96 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemProcessor;
+import com.siemens.internship.service.ItemService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@TestPropertySource(properties = {"items.processing.chunk-size=7", "items.processing.parallelism=3"})
+public class ItemBatchProcessingTests {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(new Item(null, "item" + i, "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+        }
+        itemRepository.saveAll(items);
+    }
+
+    @Test
+    void processItemsInBatches_processesEveryItem() {
+        double processedBefore = meterRegistry.counter("items.processed", "mode", "batch").count();
+
+        List<Item> processed = itemService.processItemsInBatchesAsync().join();
+
+        assertEquals(100, meterRegistry.counter("items.processed", "mode", "batch").count() - processedBefore);
+        assertTrue(meterRegistry.get("items.process.chunk").timer().count() >= 15);
+
+        assertEquals(100, processed.size());
+        assertTrue(processed.stream().allMatch(item -> Item.STATUS_PROCESSED.equals(item.getStatus())));
+        assertTrue(itemRepository.findAll().stream().allMatch(item -> Item.STATUS_PROCESSED.equals(item.getStatus())));
+    }
+
+    @Test
+    void noProcessorsAreRegisteredByDefault() {
+        // fara ItemProcessor-i loturile sunt marcate PROCESSED cu un singur UPDATE
+        assertTrue(applicationContext.getBeansOfType(ItemProcessor.class).isEmpty());
+    }
+
+    @Test
+    void processItemsInBatches_matchesSingleItemPath() {
+        List<Item> single = itemService.processItemsAsync().join();
+
+        assertEquals(100, single.size());
+        assertTrue(single.stream().allMatch(item -> Item.STATUS_PROCESSED.equals(item.getStatus())));
+
+        // o a doua rulare, pe oricare cale, nu mai are nimic de schimbat
+        assertEquals(0, itemService.processItemsInBatchesAsync().join().size());
+        assertEquals(0, itemService.processItemsAsync().join().size());
+    }
+
+    @Test
+    void concurrentRuns_processEachItemExactlyOnce() {
+        CompletableFuture<List<Item>> first = itemService.processItemsInBatchesAsync();
+        CompletableFuture<List<Item>> second = itemService.processItemsInBatchesAsync();
+
+        Set<Long> firstIds = first.join().stream().map(Item::getId).collect(Collectors.toSet());
+        Set<Long> secondIds = second.join().stream().map(Item::getId).collect(Collectors.toSet());
+
+        assertEquals(100, firstIds.size() + secondIds.size());
+        assertTrue(Collections.disjoint(firstIds, secondIds));
+        assertTrue(itemRepository.findAll().stream().allMatch(item -> item.getVersion() == 1L));
+    }
+}
@@ -0,0 +1,155 @@
+package com.siemens.internship;
+
+import com.siemens.internship.controller.ItemBulkController;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.service.ItemService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ItemBulkController.class)
+public class ItemBulkControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ItemService itemService;
+
+    @Test
+    void createItems_test_perElementResults() throws Exception {
+        when(itemService.saveAll(anyList()))
+                .thenReturn(List.of(new Item(7L, "good", "description", "NEPROCESAT", "valid@mail.com")));
+
+        String jsonBody = """
+            [
+                {"name": "bad", "email": "invalid-mail"},
+                {"name": "good", "description": "description", "email": "valid@mail.com"}
+            ]
+            """;
+
+        mockMvc.perform(post("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(400))
+                .andExpect(jsonPath("$[0].error").value("Wrong email format"))
+                .andExpect(jsonPath("$[1].status").value(201))
+                .andExpect(jsonPath("$[1].id").value(7));
+    }
+
+    @Test
+    void updateItems_test_missingAndUnknownIds() throws Exception {
+        when(itemService.updateAll(anyList())).thenReturn(new ItemService.BulkUpdate(
+                Map.of(1L, new Item(1L, "renamed", "description", "NEPROCESAT", "valid@mail.com")), Set.of(2L)));
+
+        String jsonBody = """
+            [
+                {"id": 1, "name": "renamed", "email": "valid@mail.com"},
+                {"id": 99, "name": "ghost", "email": "valid@mail.com"},
+                {"name": "no id", "email": "valid@mail.com"},
+                {"id": 2, "name": "stale", "email": "valid@mail.com", "version": 0}
+            ]
+            """;
+
+        mockMvc.perform(put("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].item.name").value("renamed"))
+                .andExpect(jsonPath("$[1].status").value(404))
+                .andExpect(jsonPath("$[2].status").value(400))
+                .andExpect(jsonPath("$[3].status").value(409));
+    }
+
+    @Test
+    void bulk_test_nullElementsAreRejectedPerElement() throws Exception {
+        when(itemService.saveAll(anyList()))
+                .thenReturn(List.of(new Item(7L, "good", "description", "NEPROCESAT", "valid@mail.com")));
+        when(itemService.updateAll(anyList())).thenReturn(new ItemService.BulkUpdate(
+                Map.of(1L, new Item(1L, "renamed", "description", "NEPROCESAT", "valid@mail.com")), Set.of()));
+        when(itemService.deleteAllById(any())).thenReturn(Set.of(1L));
+
+        mockMvc.perform(post("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[null, {\"name\": \"good\", \"email\": \"valid@mail.com\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(400))
+                .andExpect(jsonPath("$[0].error").value("Missing item"))
+                .andExpect(jsonPath("$[1].status").value(201));
+
+        mockMvc.perform(put("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\": 1, \"name\": \"renamed\", \"email\": \"valid@mail.com\"}, null]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[1].status").value(400))
+                .andExpect(jsonPath("$[1].error").value("Missing item"));
+
+        mockMvc.perform(delete("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, null]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(204))
+                .andExpect(jsonPath("$[1].status").value(400));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateItems_test_repeatedIdsAreRejected() throws Exception {
+        when(itemService.updateAll(anyList())).thenReturn(new ItemService.BulkUpdate(
+                Map.of(1L, new Item(1L, "first", "description", "NEPROCESAT", "valid@mail.com")), Set.of()));
+
+        String jsonBody = """
+            [
+                {"id": 1, "name": "first", "email": "valid@mail.com"},
+                {"id": 1, "name": "second", "email": "valid@mail.com"}
+            ]
+            """;
+
+        mockMvc.perform(put("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].item.name").value("first"))
+                .andExpect(jsonPath("$[1].status").value(409));
+
+        // doar prima aparitie ajunge la serviciu
+        ArgumentCaptor<List<Item>> applied = ArgumentCaptor.forClass(List.class);
+        verify(itemService).updateAll(applied.capture());
+        assertEquals(List.of("first"), applied.getValue().stream().map(Item::getName).toList());
+    }
+
+    @Test
+    void deleteItems_test_perElementResults() throws Exception {
+        when(itemService.deleteAllById(any())).thenReturn(Set.of(1L));
+
+        mockMvc.perform(delete("/api/items/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(204))
+                .andExpect(jsonPath("$[1].status").value(404));
+    }
+}
@@ -0,0 +1,121 @@
+package com.siemens.internship;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.siemens.internship.config.CacheConfig;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ItemCacheTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private CaffeineCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = (CaffeineCache) cacheManager.getCache(CacheConfig.ITEMS_CACHE);
+        cache.clear();
+    }
+
+    @Test
+    void findById_secondReadIsServedFromCache() {
+        Item item = itemRepository.save(new Item(null, "item", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+
+        CacheStats before = cache.getNativeCache().stats();
+        itemService.findById(item.getId());
+        itemService.findById(item.getId());
+        CacheStats after = cache.getNativeCache().stats();
+
+        assertEquals(1, after.missCount() - before.missCount());
+        assertEquals(1, after.hitCount() - before.hitCount());
+    }
+
+    @Test
+    void saveAndDelete_keepCacheInSync() {
+        Item item = itemService.save(new Item(null, "item", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+        assertEquals("item", itemService.findById(item.getId()).orElseThrow().getName());
+
+        item.setName("renamed");
+        itemService.save(item);
+        assertEquals("renamed", itemService.findById(item.getId()).orElseThrow().getName());
+
+        itemService.deleteById(item.getId());
+        assertTrue(itemService.findById(item.getId()).isEmpty());
+    }
+
+    @Test
+    void batchProcessing_refreshesCachedStatus() {
+        Item item = itemService.save(new Item(null, "item", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+        assertEquals(Item.STATUS_NEPROCESAT, itemService.findById(item.getId()).orElseThrow().getStatus());
+
+        itemService.processItemsInBatchesAsync().join();
+
+        assertEquals(Item.STATUS_PROCESSED, itemService.findById(item.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void batchProcessing_doesNotAddUncachedItems() {
+        Item cached = itemService.save(new Item(null, "cached", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+        Item uncached = itemRepository.save(new Item(null, "uncached", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+        itemService.findById(cached.getId());
+
+        itemService.processItemsInBatchesAsync().join();
+
+        assertEquals(Item.STATUS_PROCESSED, cache.get(cached.getId(), Item.class).getStatus());
+        assertNull(cache.get(uncached.getId()));
+    }
+
+    @Test
+    void updateWithoutVersion_usesTheCurrentVersionEvenIfTheCacheIsStale() throws Exception {
+        Item item = itemService.save(new Item(null, "item", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+        itemService.findById(item.getId());
+
+        // o scriere care nu trece prin ItemService (alta instanta, SQL direct), deci intrarea din cache ramane la versiunea 0
+        Item elsewhere = itemRepository.findById(item.getId()).orElseThrow();
+        elsewhere.setName("changed elsewhere");
+        itemRepository.save(elsewhere);
+        assertEquals(0L, itemService.findById(item.getId()).orElseThrow().getVersion());
+
+        mockMvc.perform(put("/api/items/{id}", item.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"renamed\", \"description\": \"description\", \"email\": \"valid@mail.com\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(2));
+
+        // un PUT cu o versiune veche este respins, iar intrarea din cache nu mai este cea veche
+        mockMvc.perform(put("/api/items/{id}", item.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"stale\", \"description\": \"description\", \"email\": \"valid@mail.com\", \"version\": 0}"))
+                .andExpect(status().isConflict());
+        assertEquals(2L, itemService.findById(item.getId()).orElseThrow().getVersion());
+    }
+}
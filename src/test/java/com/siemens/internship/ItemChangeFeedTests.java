@@ -0,0 +1,172 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ProcessingWatermark;
+import com.siemens.internship.repository.ChangeSeqHorizon;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ProcessingWatermarkRepository;
+import com.siemens.internship.service.ItemService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"items.processing.chunk-size=5", "items.changes.settle-ms=300"})
+@AutoConfigureMockMvc
+public class ItemChangeFeedTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ProcessingWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private ChangeSeqHorizon changeSeqHorizon;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+        watermarkRepository.deleteAll();
+    }
+
+    @Test
+    void getChanges_test_returnsModifiedItemsAfterTheToken() throws Exception {
+        List<Item> items = seed(3);
+        long start = itemRepository.findMaxChangeSeq() - 3;
+        awaitSettled();
+
+        MvcResult first = mockMvc.perform(get("/api/items/changes?since={since}", start))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(items.get(0).getId()))
+                .andExpect(jsonPath("$[0].changeSeq").doesNotExist())
+                .andReturn();
+        String token = first.getResponse().getHeader("X-Next-Since");
+
+        // nimic nou: acelasi token
+        mockMvc.perform(get("/api/items/changes?since={since}", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().string("X-Next-Since", token));
+
+        // item-ul modificat apare din nou, dupa token
+        Item updated = itemRepository.findById(items.get(1).getId()).orElseThrow();
+        updated.setName("renamed");
+        itemRepository.save(updated);
+        awaitSettled();
+
+        mockMvc.perform(get("/api/items/changes?since={since}", token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("renamed"));
+
+        mockMvc.perform(get("/api/items/changes?since={since}&limit=2", start))
+                .andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(get("/api/items/changes?limit=0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void processIncrementally_test_handlesOnlyNewOrModifiedItems() throws Exception {
+        seed(12);
+        awaitSettled();
+
+        mockMvc.perform(get("/api/items/process?mode=incremental"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(12));
+        long watermark = watermarkRepository.findById(ProcessingWatermark.ITEMS).orElseThrow().getChangeSeq();
+        assertTrue(itemRepository.findAll().stream().allMatch(item -> Item.STATUS_PROCESSED.equals(item.getStatus())));
+
+        // nimic nou de la ultima rulare
+        assertEquals(0, itemService.processItemsIncrementallyAsync().join().size());
+
+        // doar item-ele adaugate intre timp sunt procesate
+        List<Item> added = seed(3);
+        awaitSettled();
+        List<Item> processed = itemService.processItemsIncrementallyAsync().join();
+        assertEquals(added.stream().map(Item::getId).toList(), processed.stream().map(Item::getId).toList());
+        assertTrue(watermarkRepository.findById(ProcessingWatermark.ITEMS).orElseThrow().getChangeSeq() > watermark);
+    }
+
+    @Test
+    void getChanges_test_doesNotSkipAChangeCommittedAfterALaterOne() throws Exception {
+        long start = itemRepository.findMaxChangeSeq();
+        awaitSettled();
+
+        // prima tranzactie ia un change_seq, dar face commit abia dupa a doua
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            itemRepository.saveAndFlush(new Item(null, "slow", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+            inserted.countDown();
+            try {
+                commit.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        inserted.await();
+        itemRepository.save(new Item(null, "fast", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+
+        // modificarea "fast" este vizibila, dar inca nu este stabila, deci token-ul nu trece de "slow"
+        mockMvc.perform(get("/api/items/changes?since={since}", start))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().string("X-Next-Since", String.valueOf(start)));
+
+        commit.countDown();
+        slow.join();
+        awaitSettled();
+
+        mockMvc.perform(get("/api/items/changes?since={since}", start))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("slow"))
+                .andExpect(jsonPath("$[1].name").value("fast"));
+    }
+
+    // asteapta pana cand toate modificarile vizibile sunt sub limita stabila
+    private void awaitSettled() throws InterruptedException {
+        long max = itemRepository.findMaxChangeSeq();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (changeSeqHorizon.settledChangeSeq() < max) {
+            assertTrue(System.currentTimeMillis() < deadline, "change_seq " + max + " did not settle");
+            Thread.sleep(20);
+        }
+    }
+
+    private List<Item> seed(int count) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new Item(null, "item" + i, "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+        }
+        return itemRepository.saveAll(items);
+    }
+}
@@ -0,0 +1,151 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemBatchProcessor;
+import com.siemens.internship.service.ItemProcessingPipeline;
+import com.siemens.internship.service.ItemProcessor;
+import com.siemens.internship.service.ItemService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@TestPropertySource(properties = {"items.processing.chunk-size=10", "items.processing.cpu-parallelism=2",
+        "items.processing.normalize-email.enabled=true"})
+public class ItemProcessingPipelineTests {
+
+    // thread-urile pe care au rulat pasii CPU
+    private static final Set<String> CPU_THREADS = ConcurrentHashMap.newKeySet();
+
+    @TestConfiguration
+    static class Processors {
+
+        // ruleaza dupa EmailNormalizingProcessor (Order 100), deci vede deja email-ul normalizat
+        @Bean
+        @Order(200)
+        ItemProcessor describingProcessor() {
+            return item -> {
+                CPU_THREADS.add(Thread.currentThread().getName());
+                if (item.getName().startsWith("bad")) {
+                    throw new IllegalStateException("cannot process " + item.getName());
+                }
+                item.setDescription(item.getName().toUpperCase(Locale.ROOT) + " <" + item.getEmail() + ">");
+            };
+        }
+    }
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemBatchProcessor itemBatchProcessor;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemProcessingPipeline itemProcessingPipeline;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+        CPU_THREADS.clear();
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            items.add(new Item(null, (i % 10 == 0 ? "bad" : "item") + i, "description", Item.STATUS_NEPROCESAT, "Mixed@Mail.COM"));
+        }
+        itemRepository.saveAll(items);
+    }
+
+    @Test
+    void batchRun_appliesProcessorsInOrderOnTheCpuPool() {
+        ItemBatchProcessor.BatchSummary summary = itemBatchProcessor.process(ItemBatchProcessor.START_ID, result -> {}).join();
+
+        assertEquals(27, summary.processed());
+        assertEquals(3, summary.failed());
+        assertFalse(CPU_THREADS.isEmpty());
+        assertTrue(CPU_THREADS.stream().allMatch(name -> name.startsWith("item-cpu-")));
+
+        Map<String, Item> byName = itemRepository.findAll().stream()
+                .collect(Collectors.toMap(Item::getName, Function.identity()));
+
+        Item item = byName.get("item1");
+        assertEquals(Item.STATUS_PROCESSED, item.getStatus());
+        assertEquals("ITEM1 <mixed@mail.com>", item.getDescription());
+        assertEquals(1L, item.getVersion());
+
+        // item-ele respinse raman neatinse si neprocesate
+        Item bad = byName.get("bad10");
+        assertEquals(Item.STATUS_NEPROCESAT, bad.getStatus());
+        assertEquals("description", bad.getDescription());
+        assertEquals(0L, bad.getVersion());
+    }
+
+    @Test
+    void batchRun_doesNotMoveTheCheckpointPastFailedItems() {
+        // fiecare lot de 10 contine un item respins, deci o reluare trebuie sa inceapa de la primul lot
+        List<Long> checkpoints = new CopyOnWriteArrayList<>();
+        ItemBatchProcessor.BatchSummary summary = itemBatchProcessor
+                .process(ItemBatchProcessor.START_ID, result -> checkpoints.add(result.checkpointId()))
+                .join();
+
+        assertEquals(3, summary.failed());
+        assertEquals(3, checkpoints.size());
+        assertTrue(checkpoints.stream().allMatch(checkpoint -> checkpoint == ItemBatchProcessor.START_ID));
+    }
+
+    @Test
+    void save_skipsAndCountsItemsChangedAfterCompute() {
+        List<Long> ids = itemRepository.findIdsByStatus(Item.STATUS_NEPROCESAT).stream().sorted().toList().subList(1, 4);
+        ItemProcessingPipeline.Result computed = itemProcessingPipeline.compute(ids);
+        assertEquals(3, computed.items().size());
+
+        // un client modifica item-ul intre calcul si salvare
+        Item changed = itemRepository.findById(ids.get(0)).orElseThrow();
+        changed.setDescription("edited");
+        itemRepository.save(changed);
+
+        double skippedBefore = meterRegistry.counter("items.skipped").count();
+        List<Item> saved = itemProcessingPipeline.save(computed.items());
+
+        assertEquals(2, saved.size());
+        assertEquals(1, meterRegistry.counter("items.skipped").count() - skippedBefore);
+        Item kept = itemRepository.findById(ids.get(0)).orElseThrow();
+        assertEquals(Item.STATUS_NEPROCESAT, kept.getStatus());
+        assertEquals("edited", kept.getDescription());
+    }
+
+    @Test
+    void singleRun_usesTheSamePipeline() {
+        List<Item> processed = itemService.processItemsAsync().join();
+
+        assertEquals(27, processed.size());
+        assertTrue(processed.stream().allMatch(item -> "mixed@mail.com".equals(item.getEmail())));
+        assertEquals(3, itemRepository.findIdsByStatus(Item.STATUS_NEPROCESAT).size());
+    }
+}
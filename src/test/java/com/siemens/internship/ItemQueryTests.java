@@ -0,0 +1,126 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemFilter;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+public class ItemQueryTests {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private List<Item> items;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+
+        List<Item> newItems = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            newItems.add(new Item(null, "item" + i, "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+        }
+        items = itemRepository.saveAll(newItems);
+    }
+
+    @Test
+    void findPage_walksAllItemsByKeyset() {
+        List<Long> seen = new ArrayList<>();
+        long after = 0;
+        List<Item> page;
+        while (!(page = itemService.findPage(ItemFilter.NONE, after, 10)).isEmpty()) {
+            page.forEach(item -> seen.add(item.getId()));
+            after = page.get(page.size() - 1).getId();
+        }
+
+        assertEquals(items.stream().map(Item::getId).toList(), seen);
+    }
+
+    @Test
+    void findPageProjected_returnsOnlyRequestedFields() {
+        List<Map<String, Object>> page = itemService.findPageProjected(ItemFilter.NONE, items.get(4).getId(), 3, List.of("id", "status"));
+
+        assertEquals(3, page.size());
+        assertEquals(List.of("id", "status"), List.copyOf(page.get(0).keySet()));
+        assertEquals(items.get(5).getId(), page.get(0).get("id"));
+        assertEquals(Item.STATUS_NEPROCESAT, page.get(0).get("status"));
+    }
+
+    @Test
+    void findPage_filtersByStatusAndEmail() {
+        Item other = items.get(3);
+        other.setEmail("other@mail.com");
+        other.setStatus(Item.STATUS_PROCESSED);
+        itemRepository.save(other);
+
+        List<Item> byEmail = itemService.findPage(new ItemFilter(null, "other@mail.com"), 0, 100);
+        assertEquals(List.of(other.getId()), byEmail.stream().map(Item::getId).toList());
+
+        assertEquals(24, itemService.findPage(new ItemFilter(Item.STATUS_NEPROCESAT, null), 0, 100).size());
+        assertEquals(0, itemService.findPage(new ItemFilter(Item.STATUS_NEPROCESAT, "other@mail.com"), 0, 100).size());
+    }
+
+    @Test
+    void exportAll_visitsEveryItemInOrder() {
+        List<Long> exported = new ArrayList<>();
+        itemService.exportAll(item -> exported.add(item.getId()));
+
+        assertEquals(items.stream().map(Item::getId).toList(), exported);
+    }
+
+    @Test
+    void bulkWrites_createUpdateAndDeleteInBatches() {
+        List<Item> created = itemService.saveAll(List.of(
+                new Item(null, "bulk1", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"),
+                new Item(null, "bulk2", "description", Item.STATUS_NEPROCESAT, "valid@mail.com")));
+        assertEquals(27, itemRepository.count());
+
+        Item change = new Item(created.get(0).getId(), "renamed", "description", Item.STATUS_NEPROCESAT, "valid@mail.com");
+        Item missing = new Item(-1L, "ghost", "description", Item.STATUS_NEPROCESAT, "valid@mail.com");
+        assertEquals(Set.of(created.get(0).getId()), itemService.updateAll(List.of(change, missing)).updated().keySet());
+        assertEquals("renamed", itemService.findById(created.get(0).getId()).orElseThrow().getName());
+
+        Set<Long> deleted = itemService.deleteAllById(List.of(created.get(0).getId(), created.get(1).getId(), -1L));
+        assertEquals(Set.of(created.get(0).getId(), created.get(1).getId()), deleted);
+        assertEquals(25, itemRepository.count());
+    }
+
+    @Test
+    void bulkUpdate_rejectsStaleVersions() {
+        Item first = items.get(0);
+        Item second = items.get(1);
+
+        // second a fost modificat dupa ce clientul l-a citit cu versiunea 0
+        Item concurrent = itemRepository.findById(second.getId()).orElseThrow();
+        concurrent.setName("changed elsewhere");
+        itemRepository.save(concurrent);
+
+        Item current = new Item(first.getId(), "renamed", "description", Item.STATUS_NEPROCESAT, "valid@mail.com");
+        current.setVersion(0L);
+        Item stale = new Item(second.getId(), "stale", "description", Item.STATUS_NEPROCESAT, "valid@mail.com");
+        stale.setVersion(0L);
+
+        ItemService.BulkUpdate result = itemService.updateAll(List.of(current, stale));
+
+        assertEquals(Set.of(first.getId()), result.updated().keySet());
+        assertEquals(Set.of(second.getId()), result.conflicts());
+        assertEquals("renamed", itemRepository.findById(first.getId()).orElseThrow().getName());
+        assertEquals(1L, itemRepository.findById(first.getId()).orElseThrow().getVersion());
+        assertEquals("changed elsewhere", itemRepository.findById(second.getId()).orElseThrow().getName());
+    }
+}
@@ -0,0 +1,137 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemProcessingPipeline;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ItemWriteBuffer;
+import com.siemens.internship.service.WriteDurability;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {"items.processing.write-behind.enabled=true", "items.processing.write-behind.max-batch=16",
+        "items.processing.normalize-email.enabled=true"})
+public class ItemWriteBufferTests {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submit_coalescesResultsForTheSameItem() throws Exception {
+        ItemProcessingPipeline pipeline = mock(ItemProcessingPipeline.class);
+        when(pipeline.save(any())).thenAnswer(invocation -> new ArrayList<>(invocation.<Collection<Item>>getArgument(0)));
+        ItemWriteBuffer buffer = new ItemWriteBuffer(pipeline, new SimpleMeterRegistry(), true, WriteDurability.SYNC, 10, 10, 200);
+
+        Item first = new Item(1L, "first", "description", Item.STATUS_NEPROCESAT, "valid@mail.com");
+        Item second = new Item(1L, "second", "description", Item.STATUS_NEPROCESAT, "valid@mail.com");
+        CompletableFuture<Item> firstWrite = buffer.submit(first);
+        CompletableFuture<Item> secondWrite = buffer.submit(second);
+        buffer.submit(new Item(2L, "other", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+        assertSame(firstWrite, secondWrite);
+        assertEquals(2, buffer.size());
+
+        assertEquals("second", firstWrite.get(5, TimeUnit.SECONDS).getName());
+
+        ArgumentCaptor<Collection<Item>> written = ArgumentCaptor.forClass(Collection.class);
+        verify(pipeline, times(1)).save(written.capture());
+        assertEquals(2, written.getValue().size());
+        buffer.shutdown();
+    }
+
+    @Test
+    void processItemsAsync_writesResultsInBatches() {
+        itemRepository.deleteAll();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            items.add(new Item(null, "item" + i, "description", Item.STATUS_NEPROCESAT, "Valid@Mail.com"));
+        }
+        itemRepository.saveAll(items);
+        double flushesBefore = meterRegistry.get("items.write-behind.flush").timer().count();
+
+        List<Item> processed = itemService.processItemsAsync().join();
+
+        // durabilitatea implicita este SYNC: toate item-ele sunt deja scrise cand future-ul se termina
+        assertEquals(60, processed.size());
+        assertTrue(itemRepository.findAll().stream().allMatch(item ->
+                Item.STATUS_PROCESSED.equals(item.getStatus()) && "valid@mail.com".equals(item.getEmail())));
+        assertTrue(meterRegistry.get("items.write-behind.flush").timer().count() - flushesBefore < 60);
+        assertEquals(0.0, meterRegistry.get("items.write-behind.queue").gauge().value());
+    }
+
+    // cu durabilitatea ASYNC rularea se termina inainte de scriere, dar item-ele intoarse au deja starea de dupa scriere,
+    // scrierile ajung toate in baza de date si fiecare item este numarat o singura data, dupa scriere
+    @Nested
+    @TestPropertySource(properties = "items.processing.write-behind.durability=async")
+    class AsyncDurability {
+
+        @Autowired
+        private ItemWriteBuffer itemWriteBuffer;
+
+        @Test
+        void processItemsAsync_returnsProcessedItemsAndWritesThemAll() throws Exception {
+            assertEquals(WriteDurability.ASYNC, itemWriteBuffer.getDurability());
+            itemRepository.deleteAll();
+            List<Item> items = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                items.add(new Item(null, "item" + i, "description", Item.STATUS_NEPROCESAT, "Valid@Mail.com"));
+            }
+            Map<Long, Long> versions = itemRepository.saveAll(items).stream()
+                    .collect(Collectors.toMap(Item::getId, Item::getVersion));
+            double processedBefore = meterRegistry.get("items.processed").tag("mode", "single").counter().count();
+            double failedBefore = meterRegistry.get("items.failed").tag("mode", "single").counter().count();
+
+            List<Item> processed = itemService.processItemsAsync().join();
+
+            assertEquals(40, processed.size());
+            assertTrue(processed.stream().allMatch(item -> Item.STATUS_PROCESSED.equals(item.getStatus())
+                    && item.getVersion() == versions.get(item.getId()) + 1));
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (meterRegistry.get("items.processed").tag("mode", "single").counter().count() - processedBefore < 40) {
+                assertTrue(System.currentTimeMillis() < deadline, "buffered results were not written");
+                Thread.sleep(20);
+            }
+            Map<Long, Item> stored = itemRepository.findAll().stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            for (Item item : processed) {
+                Item current = stored.get(item.getId());
+                assertEquals(Item.STATUS_PROCESSED, current.getStatus());
+                assertEquals("valid@mail.com", current.getEmail());
+                assertEquals(item.getVersion(), current.getVersion());
+            }
+            assertEquals(40.0, meterRegistry.get("items.processed").tag("mode", "single").counter().count() - processedBefore);
+            assertEquals(failedBefore, meterRegistry.get("items.failed").tag("mode", "single").counter().count());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ProcessingLease;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ProcessingLeaseRepository;
+import com.siemens.internship.service.ItemService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// trei instante ale aplicatiei (contexte separate) pe aceeasi baza de date H2 in fisier
+public class PartitionedProcessingTests {
+
+    private static final int INSTANCES = 3;
+    private static final int ITEM_COUNT = 3000;
+
+    @TempDir
+    static Path databaseDirectory;
+
+    private static final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+    @BeforeAll
+    static void startInstances() {
+        String url = "jdbc:h2:file:" + databaseDirectory.resolve("items").toAbsolutePath();
+        for (int i = 0; i < INSTANCES; i++) {
+            // ca argumente de linie de comanda, ca sa aiba prioritate fata de application.properties
+            contexts.add(new SpringApplicationBuilder(InternshipApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--spring.datasource.url=" + url,
+                            "--items.processing.instance-id=instance-" + i,
+                            "--items.processing.partition-size=100",
+                            "--items.processing.chunk-size=25",
+                            "--spring.main.banner-mode=off"));
+        }
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @BeforeEach
+    void seed() {
+        ItemRepository itemRepository = contexts.get(0).getBean(ItemRepository.class);
+        itemRepository.deleteAll();
+        contexts.get(0).getBean(ProcessingLeaseRepository.class).deleteAll();
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(new Item(null, "item" + i, "description", Item.STATUS_NEPROCESAT, "Valid@Mail.com"));
+        }
+        itemRepository.saveAll(items);
+    }
+
+    @Test
+    void processPartitioned_splitsTheWorkBetweenInstances() {
+        List<CompletableFuture<List<Item>>> runs = contexts.stream()
+                .map(context -> CompletableFuture.supplyAsync(() ->
+                        context.getBean(ItemService.class).processItemsPartitionedAsync().join()))
+                .toList();
+
+        Set<Long> processedIds = new HashSet<>();
+        int total = 0;
+        int instancesWithWork = 0;
+        for (CompletableFuture<List<Item>> run : runs) {
+            List<Item> processed = run.join();
+            total += processed.size();
+            processed.forEach(item -> processedIds.add(item.getId()));
+            if (!processed.isEmpty()) {
+                instancesWithWork++;
+            }
+        }
+
+        // fiecare item a fost procesat o singura data, de o singura instanta
+        assertEquals(ITEM_COUNT, total);
+        assertEquals(ITEM_COUNT, processedIds.size());
+        assertTrue(instancesWithWork > 1, "only one instance processed items");
+
+        ItemRepository itemRepository = contexts.get(0).getBean(ItemRepository.class);
+        assertTrue(itemRepository.findAll().stream().allMatch(item ->
+                Item.STATUS_PROCESSED.equals(item.getStatus()) && item.getVersion() == 1L));
+        assertTrue(contexts.get(0).getBean(ProcessingLeaseRepository.class).findAll().stream()
+                .allMatch(lease -> lease.getOwner() == null));
+    }
+
+    @Test
+    void processPartitioned_skipsLeasedPartitionsUntilTheLeaseExpires() {
+        ItemRepository itemRepository = contexts.get(0).getBean(ItemRepository.class);
+        ProcessingLeaseRepository leaseRepository = contexts.get(0).getBean(ProcessingLeaseRepository.class);
+        ItemService itemService = contexts.get(1).getBean(ItemService.class);
+
+        // o instanta care a cazut tine inca prima partitie
+        long firstId = itemRepository.findAllIds().stream().min(Long::compare).orElseThrow();
+        long partition = (firstId - 1) / 100;
+        long partitionItems = itemRepository.findAllIds().stream().filter(id -> (id - 1) / 100 == partition).count();
+        leaseRepository.save(new ProcessingLease(partition, "crashed", Instant.now().plusSeconds(3600)));
+
+        assertEquals(ITEM_COUNT - partitionItems, itemService.processItemsPartitionedAsync().join().size());
+        assertEquals(partitionItems, itemRepository.findIdsByStatus(Item.STATUS_NEPROCESAT).size());
+
+        // dupa expirare, partitia este preluata
+        leaseRepository.save(new ProcessingLease(partition, "crashed", Instant.now().minusSeconds(1)));
+        assertEquals(partitionItems, itemService.processItemsPartitionedAsync().join().size());
+        assertTrue(itemRepository.findIdsByStatus(Item.STATUS_NEPROCESAT).isEmpty());
+    }
+}
@@ -0,0 +1,226 @@
+package com.siemens.internship;
+
+import com.siemens.internship.controller.ItemController;
+import com.siemens.internship.model.ProcessingJob;
+import com.siemens.internship.service.ItemBatchProcessor;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ProcessingAdmission;
+import com.siemens.internship.service.ProcessingJobService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ItemController.class, properties = {
+        "items.process.rate-limit.capacity=2",
+        "items.process.rate-limit.per-minute=1"
+})
+@Import(ProcessingAdmission.class)
+public class ProcessingAdmissionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ItemService itemService;
+
+    @MockBean
+    private ProcessingJobService processingJobService;
+
+    @Test
+    void processItems_overTheClientLimit_returns429WithRetryAfter() throws Exception {
+        when(itemService.processItemsAsync()).thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        mockMvc.perform(get("/api/items/process")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/items/process")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/items/process"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "60"));
+
+        // alt client are bucket-ul lui
+        mockMvc.perform(get("/api/items/process").with(request -> {
+                    request.setRemoteAddr("10.0.0.2");
+                    return request;
+                }))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void runningJob_takesTheOnlySlot_otherProcessingRequestsGet503() throws Exception {
+        ProcessingJob job = new ProcessingJob();
+        job.setId(3L);
+        CompletableFuture<ProcessingJob> completion = new CompletableFuture<>();
+        when(processingJobService.startJob()).thenReturn(new ProcessingJobService.StartedJob(job, completion));
+
+        try {
+            mockMvc.perform(post("/api/items/process").with(client("10.0.1.1")))
+                    .andExpect(status().isAccepted());
+
+            // fiecare cerere vine de la alt client, ca limita per client sa nu intervina
+            mockMvc.perform(post("/api/items/process").with(client("10.0.1.2")))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+            mockMvc.perform(get("/api/items/process/stream").with(client("10.0.1.3")))
+                    .andExpect(status().isServiceUnavailable());
+            mockMvc.perform(get("/api/items/process").with(client("10.0.1.4")))
+                    .andExpect(status().isServiceUnavailable());
+        }
+        finally {
+            completion.complete(job);
+        }
+
+        when(itemService.processItemsStreaming(any()))
+                .thenReturn(CompletableFuture.completedFuture(new ItemBatchProcessor.BatchSummary(0, 0)));
+        mockMvc.perform(get("/api/items/process/stream").with(client("10.0.1.5")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void admit_concurrentCallersShareOneRun() {
+        ProcessingAdmission admission = newAdmission(10, 1);
+        CompletableFuture<String> run = new CompletableFuture<>();
+        AtomicInteger starts = new AtomicInteger(0);
+
+        ProcessingAdmission.Admission<String> first = admission.admit("a", "batch", () -> {
+            starts.incrementAndGet();
+            return run;
+        });
+        ProcessingAdmission.Admission<String> second = admission.admit("b", "batch", () -> {
+            starts.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+
+        assertEquals(ProcessingAdmission.Outcome.STARTED, first.outcome());
+        assertEquals(ProcessingAdmission.Outcome.JOINED, second.outcome());
+        assertSame(first.result(), second.result());
+        assertEquals(1, starts.get());
+
+        // dupa terminare urmatoarea cerere porneste o rulare noua
+        run.complete("done");
+        assertEquals(0, admission.getInFlightCount());
+        assertEquals(ProcessingAdmission.Outcome.STARTED,
+                admission.admit("a", "batch", () -> CompletableFuture.completedFuture("again")).outcome());
+    }
+
+    @Test
+    void admit_overCapacity_isRejectedWithoutStarting() {
+        ProcessingAdmission admission = newAdmission(10, 1);
+        admission.admit("a", "batch", CompletableFuture::new);
+
+        ProcessingAdmission.Admission<String> other = admission.admit("a", "single", () -> {
+            throw new AssertionError("must not start");
+        });
+        assertEquals(ProcessingAdmission.Outcome.OVERLOADED, other.outcome());
+        assertNull(other.result());
+        assertEquals(7, other.retryAfterSeconds());
+
+        // un executor plin este tratat la fel, iar rularea respinsa nu ramane inregistrata
+        ProcessingAdmission roomy = newAdmission(10, 2);
+        ProcessingAdmission.Admission<String> rejected = roomy.admit("a", "single", () -> {
+            throw new TaskRejectedException("full");
+        });
+        assertEquals(ProcessingAdmission.Outcome.OVERLOADED, rejected.outcome());
+        assertEquals(0, roomy.getInFlightCount());
+    }
+
+    @Test
+    void admit_doesNotHoldOtherRequestsWhileARunIsStarting() throws Exception {
+        ProcessingAdmission admission = newAdmission(10, 1);
+        CountDownLatch starting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> run = new CompletableFuture<>();
+
+        // starter-ul asteapta (de exemplu dupa un loc in executor) in timp ce alte cereri sunt decise
+        CompletableFuture<ProcessingAdmission.Admission<String>> first = CompletableFuture.supplyAsync(() ->
+                admission.admit("a", "batch", () -> {
+                    starting.countDown();
+                    try {
+                        release.await();
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return run;
+                }));
+        starting.await();
+
+        ProcessingAdmission.Admission<String> joined = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> admission.admit("b", "batch", CompletableFuture::new));
+        ProcessingAdmission.Admission<String> other = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> admission.admit("c", "single", CompletableFuture::new));
+        assertEquals(ProcessingAdmission.Outcome.JOINED, joined.outcome());
+        assertEquals(ProcessingAdmission.Outcome.OVERLOADED, other.outcome());
+
+        release.countDown();
+        assertSame(first.join().result(), joined.result());
+        run.complete("done");
+        assertEquals("done", joined.result().join());
+        assertEquals(0, admission.getInFlightCount());
+
+        // un starter care esueaza elibereaza locul
+        assertThrows(IllegalStateException.class, () -> admission.admit("a", "batch", () -> {
+            throw new IllegalStateException("broken");
+        }));
+        assertEquals(0, admission.getInFlightCount());
+    }
+
+    @Test
+    void admit_publishesOutcomeCounters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ProcessingAdmission admission = new ProcessingAdmission(1, 1, 1, 7, provider(registry));
+
+        admission.admit("a", "batch", CompletableFuture::new);
+        ProcessingAdmission.Admission<Object> limited = admission.admit("a", "batch", CompletableFuture::new);
+
+        assertEquals(ProcessingAdmission.Outcome.RATE_LIMITED, limited.outcome());
+        assertTrue(limited.retryAfterSeconds() > 0);
+        assertEquals(1, registry.get("items.process.admission").tag("outcome", "STARTED").counter().count());
+        assertEquals(1, registry.get("items.process.admission").tag("outcome", "RATE_LIMITED").counter().count());
+    }
+
+    private RequestPostProcessor client(String remoteAddr) {
+        return request -> {
+            request.setRemoteAddr(remoteAddr);
+            return request;
+        };
+    }
+
+    private ProcessingAdmission newAdmission(int capacity, int maxConcurrentRuns) {
+        return new ProcessingAdmission(capacity, 1, maxConcurrentRuns, 7, provider(new SimpleMeterRegistry()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ObjectProvider<MeterRegistry> provider(MeterRegistry registry) {
+        ObjectProvider<MeterRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(registry);
+        return provider;
+    }
+}
@@ -0,0 +1,178 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ProcessingJob;
+import com.siemens.internship.model.ProcessingJobStatus;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ProcessingJobRepository;
+import com.siemens.internship.service.ProcessingJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@TestPropertySource(properties = {"items.processing.chunk-size=7", "items.processing.parallelism=3"})
+public class ProcessingJobTests {
+
+    @Autowired
+    private ProcessingJobService processingJobService;
+
+    @Autowired
+    private ProcessingJobRepository processingJobRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    @Qualifier("taskExecutor")
+    private ThreadPoolTaskExecutor taskExecutor;
+
+    private List<Item> items;
+
+    @BeforeEach
+    void setUp() {
+        processingJobRepository.deleteAll();
+        itemRepository.deleteAll();
+
+        List<Item> newItems = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            newItems.add(new Item(null, "item" + i, "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+        }
+        items = itemRepository.saveAll(newItems);
+    }
+
+    @Test
+    void startJob_runsInBackgroundAndCompletes() throws Exception {
+        ProcessingJob job = processingJobService.startJob().job();
+
+        ProcessingJob finished = awaitFinished(job.getId());
+
+        assertEquals(ProcessingJobStatus.COMPLETED, finished.getStatus());
+        assertEquals(50, finished.getProcessedCount());
+        assertEquals(items.get(items.size() - 1).getId(), finished.getCheckpointId());
+        assertTrue(itemRepository.findAll().stream().allMatch(item -> Item.STATUS_PROCESSED.equals(item.getStatus())));
+    }
+
+    @Test
+    void resumeInterruptedJobs_continuesFromCheckpoint() {
+        // un job ramas RUNNING dupa o repornire, care apucase sa proceseze primele 20 de item-e
+        ProcessingJob interrupted = new ProcessingJob();
+        interrupted.setCheckpointId(items.get(19).getId());
+        interrupted.setProcessedCount(20);
+        interrupted.setCreatedAt(Instant.now());
+        interrupted = processingJobRepository.save(interrupted);
+
+        List<CompletableFuture<ProcessingJob>> resumed = processingJobService.resumeInterruptedJobs();
+        assertEquals(1, resumed.size());
+        ProcessingJob finished = resumed.get(0).join();
+
+        assertEquals(interrupted.getId(), finished.getId());
+        assertEquals(ProcessingJobStatus.COMPLETED, finished.getStatus());
+        assertEquals(50, finished.getProcessedCount());
+
+        // item-ele de dinainte de checkpoint nu au mai fost atinse
+        List<Item> all = itemRepository.findAllById(items.stream().map(Item::getId).toList());
+        assertEquals(20, all.stream().filter(item -> Item.STATUS_NEPROCESAT.equals(item.getStatus())).count());
+        assertEquals(30, all.stream().filter(item -> Item.STATUS_PROCESSED.equals(item.getStatus())).count());
+    }
+
+    @Test
+    void resumeInterruptedJobs_leavesJobsOfLiveInstancesAlone() {
+        // un job rulat chiar acum de alta instanta, care si-a actualizat recent heartbeat-ul
+        ProcessingJob running = new ProcessingJob();
+        running.setCheckpointId(items.get(19).getId());
+        running.setOwner("other-instance");
+        running.setCreatedAt(Instant.now());
+        running.setUpdatedAt(Instant.now());
+        running = processingJobRepository.save(running);
+
+        assertEquals(0, processingJobService.resumeInterruptedJobs().size());
+        assertEquals("other-instance", processingJobRepository.findById(running.getId()).orElseThrow().getOwner());
+        assertEquals(50, itemRepository.findIdsByStatus(Item.STATUS_NEPROCESAT).size());
+
+        // dupa ce heartbeat-ul expira, job-ul este preluat de aceasta instanta
+        running.setUpdatedAt(Instant.now().minus(Duration.ofHours(1)));
+        processingJobRepository.save(running);
+
+        List<CompletableFuture<ProcessingJob>> resumed = processingJobService.resumeInterruptedJobs();
+        assertEquals(1, resumed.size());
+        ProcessingJob finished = resumed.get(0).join();
+        assertEquals(ProcessingJobStatus.COMPLETED, finished.getStatus());
+        assertNotEquals("other-instance", finished.getOwner());
+        assertEquals(30, finished.getProcessedCount());
+    }
+
+    @Test
+    void startJob_rejectedByAFullExecutor_leavesNoRunningJob() throws Exception {
+        // task-urile lasate de testele anterioare s-ar putea termina si elibera un loc in timpul testului
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(10));
+        while (taskExecutor.getActiveCount() > 0 || !taskExecutor.getThreadPoolExecutor().getQueue().isEmpty()) {
+            assertTrue(Instant.now().isBefore(deadline), "task executor did not become idle");
+            Thread.sleep(20);
+        }
+
+        // executorul este umplut cu task-uri care asteapta, pana cand toate thread-urile lucreaza si coada este plina;
+        // un refuz singur nu ajunge, thread-urile libere pot goli coada imediat dupa el
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocker = () -> {
+            try {
+                release.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try {
+            while (taskExecutor.getActiveCount() < taskExecutor.getMaxPoolSize()
+                    || taskExecutor.getThreadPoolExecutor().getQueue().remainingCapacity() > 0) {
+                assertTrue(Instant.now().isBefore(deadline), "task executor could not be filled");
+                try {
+                    taskExecutor.execute(blocker);
+                }
+                catch (RejectedExecutionException e) {
+                    Thread.sleep(5);
+                }
+            }
+
+            assertThrows(RejectedExecutionException.class, () -> processingJobService.startJob());
+        }
+        finally {
+            release.countDown();
+        }
+
+        assertTrue(processingJobRepository.findByStatus(ProcessingJobStatus.RUNNING).isEmpty());
+        List<ProcessingJob> jobs = processingJobRepository.findAll();
+        assertEquals(1, jobs.size());
+        assertEquals(ProcessingJobStatus.FAILED, jobs.get(0).getStatus());
+        assertEquals(0, processingJobService.resumeInterruptedJobs().size());
+    }
+
+    private ProcessingJob awaitFinished(Long jobId) throws InterruptedException {
+        Instant deadline = Instant.now().plus(Duration.ofSeconds(10));
+        while (Instant.now().isBefore(deadline)) {
+            ProcessingJob job = processingJobRepository.findById(jobId).orElseThrow();
+            if (job.getStatus() != ProcessingJobStatus.RUNNING) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Processing job " + jobId + " did not finish in time");
+    }
+}
@@ -0,0 +1,97 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siemens.internship.controller.ProcessingProgress;
+import com.siemens.internship.controller.ProgressLineSender;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProgressLineSenderTests {
+
+    @Test
+    void send_doesNotWaitForASlowClient() throws Exception {
+        CountDownLatch clientReads = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(clientReads);
+        ProgressLineSender sender = new ProgressLineSender(emitter, new ObjectMapper(), 2);
+        sender.start();
+
+        // prima linie ramane blocata la client, urmatoarele doua asteapta in coada, iar a patra depaseste coada
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertTrue(sender.send(ProcessingProgress.summary(1, 0)));
+            assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+            assertTrue(sender.send(ProcessingProgress.summary(2, 0)));
+            assertTrue(sender.send(ProcessingProgress.summary(3, 0)));
+            assertFalse(sender.send(ProcessingProgress.summary(4, 0)));
+        });
+
+        clientReads.countDown();
+        assertTrue(emitter.closedWithError.get(5, TimeUnit.SECONDS));
+        assertEquals(1, emitter.lines.size());
+    }
+
+    @Test
+    void finish_writesEveryLineInOrderThenCompletes() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        ProgressLineSender sender = new ProgressLineSender(emitter, new ObjectMapper(), 10);
+        sender.start();
+
+        sender.send(ProcessingProgress.summary(1, 0));
+        sender.send(ProcessingProgress.summary(2, 1));
+        sender.finish(ProcessingProgress.summary(2, 1), null);
+
+        assertFalse(emitter.closedWithError.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(
+                "{\"type\":\"summary\",\"processed\":1,\"failed\":0}\n",
+                "{\"type\":\"summary\",\"processed\":2,\"failed\":1}\n",
+                "{\"type\":\"summary\",\"processed\":2,\"failed\":1}\n"), emitter.lines);
+        assertFalse(sender.send(ProcessingProgress.summary(3, 1)));
+    }
+
+    // retine liniile trimise; send asteapta pana cand clientul "citeste"
+    private static class RecordingEmitter extends ResponseBodyEmitter {
+
+        private final CountDownLatch clientReads;
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final List<Object> lines = new CopyOnWriteArrayList<>();
+        private final CompletableFuture<Boolean> closedWithError = new CompletableFuture<>();
+
+        RecordingEmitter(CountDownLatch clientReads) {
+            this.clientReads = clientReads;
+        }
+
+        @Override
+        public void send(Object object, MediaType mediaType) {
+            sending.countDown();
+            try {
+                clientReads.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lines.add(object);
+        }
+
+        @Override
+        public void complete() {
+            closedWithError.complete(false);
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            closedWithError.complete(true);
+        }
+    }
+}
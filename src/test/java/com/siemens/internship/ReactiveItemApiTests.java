@@ -0,0 +1,255 @@
+package com.siemens.internship;
+
+import com.siemens.internship.controller.ProcessingProgress;
+import com.siemens.internship.controller.ReactiveItemController;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ProcessingAdmission;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// acelasi contract HTTP ca ItemController, pe stack-ul WebFlux + R2DBC
+@SpringBootTest(properties = {"spring.main.web-application-type=reactive", "items.processing.chunk-size=10",
+        "items.processing.normalize-email.enabled=true", "items.processing.stream-subscribe-timeout-ms=300"})
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+public class ReactiveItemApiTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReactiveItemController reactiveItemController;
+
+    @Autowired
+    private ProcessingAdmission processingAdmission;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+        cacheManager.getCache("items").clear();
+    }
+
+    @Test
+    void crud_matchesTheMvcContract() {
+        Item created = webTestClient.post().uri("/api/items")
+                .bodyValue(new Item(null, "item", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Item.class)
+                .returnResult().getResponseBody();
+        assertEquals(0L, created.getVersion());
+
+        webTestClient.post().uri("/api/items")
+                .bodyValue(new Item(null, "item", "description", Item.STATUS_NEPROCESAT, "invalid"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Wrong email format; ");
+
+        webTestClient.get().uri("/api/items/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.name").isEqualTo("item");
+
+        webTestClient.put().uri("/api/items/{id}", created.getId())
+                .bodyValue(new Item(null, "renamed", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.version").isEqualTo(1);
+
+        // versiunea 0 nu mai este cea curenta
+        Item stale = new Item(null, "stale", "description", Item.STATUS_NEPROCESAT, "valid@mail.com");
+        stale.setVersion(0L);
+        webTestClient.put().uri("/api/items/{id}", created.getId())
+                .bodyValue(stale)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+        assertEquals("renamed", itemRepository.findById(created.getId()).orElseThrow().getName());
+
+        webTestClient.put().uri("/api/items/{id}", -1)
+                .bodyValue(new Item(null, "ghost", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"))
+                .exchange()
+                .expectStatus().isNotFound();
+
+        webTestClient.delete().uri("/api/items/{id}", created.getId()).exchange().expectStatus().isNoContent();
+        webTestClient.delete().uri("/api/items/{id}", created.getId()).exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/api/items/{id}", created.getId()).exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void getAllItems_pagesFiltersAndProjects() {
+        List<Item> items = seed(5);
+
+        webTestClient.get().uri("/api/items?limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Next-After", String.valueOf(items.get(1).getId()))
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+
+        webTestClient.get().uri("/api/items?after={after}&fields=status&status=NEPROCESAT", items.get(1).getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist("X-Next-After")
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[0].id").isEqualTo(items.get(2).getId())
+                .jsonPath("$[0].name").doesNotExist();
+
+        webTestClient.get().uri("/api/items?limit=2")
+                .accept(MediaType.parseMediaType("application/x-jackson-smile"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("application/x-jackson-smile");
+
+        webTestClient.get().uri("/api/items?fields=password").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri("/api/items?limit=0").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void processItems_runsTheProcessorsAndMarksEveryItem() {
+        seed(25);
+
+        List<Item> processed = webTestClient.get().uri("/api/items/process?mode=batch")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Item.class)
+                .returnResult().getResponseBody();
+
+        assertEquals(25, processed.size());
+        assertTrue(processed.stream().allMatch(item -> "mixed@mail.com".equals(item.getEmail())));
+        assertTrue(itemRepository.findAll().stream().allMatch(item ->
+                Item.STATUS_PROCESSED.equals(item.getStatus()) && item.getVersion() == 1L));
+
+        // o a doua rulare nu mai gaseste nimic de procesat
+        webTestClient.get().uri("/api/items/process")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(0);
+    }
+
+    @Test
+    void exportItems_writesTheSameShapeAsTheLists() {
+        Item item = seed(1).get(0);
+
+        webTestClient.get().uri("/api/items/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .isEqualTo("{\"id\":" + item.getId() + ",\"name\":\"item0\",\"description\":\"description\"," +
+                        "\"status\":\"NEPROCESAT\",\"email\":\"Mixed@Mail.COM\",\"version\":0}\n");
+    }
+
+    @Test
+    void processItemsStream_emitsChunksInOrderThenSummary() {
+        seed(25);
+
+        List<ProcessingProgress> lines = webTestClient.get().uri("/api/items/process/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ProcessingProgress.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(4, lines.size());
+        assertEquals(List.of(0L, 1L, 2L), lines.subList(0, 3).stream().map(ProcessingProgress::chunk).toList());
+        assertEquals("summary", lines.get(3).type());
+        assertEquals(25, lines.get(3).processed());
+    }
+
+    @Test
+    void processItemsStream_bodyNeverRead_releasesTheSlot() throws Exception {
+        seed(5);
+
+        // raspunsul este creat, dar corpul nu este citit niciodata (de exemplu clientul s-a deconectat)
+        ResponseEntity<Flux<ProcessingProgress>> response = reactiveItemController
+                .processItemsStream(MockServerHttpRequest.get("/api/items/process/stream").build())
+                .block();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, processingAdmission.getInFlightCount());
+
+        awaitNoRunInFlight();
+
+        // un corp citit dupa eliberarea locului nu mai porneste procesarea
+        assertEquals(0, response.getBody().collectList().block().size());
+        assertTrue(itemRepository.findAll().stream().allMatch(item -> Item.STATUS_NEPROCESAT.equals(item.getStatus())));
+
+        // locul eliberat poate fi folosit de urmatoarea procesare
+        ResponseEntity<Flux<ProcessingProgress>> next = reactiveItemController
+                .processItemsStream(MockServerHttpRequest.get("/api/items/process/stream")
+                        .remoteAddress(new InetSocketAddress("10.0.3.1", 1)).build())
+                .block();
+        assertEquals(HttpStatus.OK, next.getStatusCode());
+        assertEquals(2, next.getBody().collectList().block().size());
+        awaitNoRunInFlight();
+    }
+
+    @Test
+    void itemsWithoutVersion_canBeUpdatedAndProcessed() {
+        List<Item> items = seed(2);
+        // randuri scrise in afara aplicatiei, fara versiune
+        jdbcTemplate.update("UPDATE item SET version = NULL");
+
+        webTestClient.put().uri("/api/items/{id}", items.get(0).getId())
+                .bodyValue(new Item(null, "renamed", "description", Item.STATUS_PROCESSED, "valid@mail.com"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.version").isEqualTo(1);
+
+        webTestClient.get().uri("/api/items/process?mode=batch")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].version").isEqualTo(1);
+
+        assertTrue(itemRepository.findAll().stream().allMatch(item ->
+                Item.STATUS_PROCESSED.equals(item.getStatus()) && item.getVersion() == 1L));
+    }
+
+    private List<Item> seed(int count) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new Item(null, "item" + i, "description", Item.STATUS_NEPROCESAT, "Mixed@Mail.COM"));
+        }
+        return itemRepository.saveAll(items);
+    }
+
+    private void awaitNoRunInFlight() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (processingAdmission.getInFlightCount() > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "stream slot was not released");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// compresia este facuta de serverul web, asa ca se verifica printr-o cerere HTTP reala si nu prin MockMvc
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ResponseCompressionTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void getAllItems_isGzippedOnlyWhenTheClientAcceptsIt() throws Exception {
+        itemRepository.deleteAll();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(new Item(null, "item" + i, "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+        }
+        itemRepository.saveAll(items);
+
+        HttpURLConnection gzipped = open("gzip");
+        assertEquals("gzip", gzipped.getHeaderField("Content-Encoding"));
+        try (InputStream body = new GZIPInputStream(gzipped.getInputStream())) {
+            JsonNode page = objectMapper.readTree(body);
+            assertEquals(100, page.size());
+            assertEquals("item0", page.get(0).get("name").asText());
+        }
+
+        HttpURLConnection plain = open(null);
+        assertNull(plain.getHeaderField("Content-Encoding"));
+        try (InputStream body = plain.getInputStream()) {
+            assertEquals(100, objectMapper.readTree(body).size());
+        }
+    }
+
+    private HttpURLConnection open(String acceptEncoding) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) URI.create("http://localhost:" + port + "/api/items")
+                .toURL().openConnection();
+        if (acceptEncoding != null) {
+            connection.setRequestProperty("Accept-Encoding", acceptEncoding);
+        }
+        assertEquals(200, connection.getResponseCode());
+        return connection;
+    }
+}
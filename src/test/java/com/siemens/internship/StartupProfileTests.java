@@ -0,0 +1,48 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// profilul "startup": bean-urile aplicatiei sunt create la prima folosire, dar schema este migrata de Flyway la pornire;
+// baza de date este separata, ca migrarile sa ruleze pe o baza goala
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:startup-profile")
+@ActiveProfiles("startup")
+public class StartupProfileTests {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void schemaIsMigratedEagerlyAndServicesAreCreatedOnFirstUse() {
+        ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+        assertTrue(beanFactory.containsSingleton("flywayInitializer"));
+        assertTrue(beanFactory.containsSingleton("entityManagerFactory"));
+        assertFalse(beanFactory.containsSingleton("itemService"));
+
+        assertEquals(List.of("1", "2"), jdbcTemplate.queryForList(
+                "SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"version\" IS NOT NULL AND \"success\" = TRUE", String.class));
+
+        // prima folosire creeaza serviciul si lucreaza pe schema creata de migrare
+        Item saved = context.getBean(ItemService.class)
+                .save(new Item(null, "item", "description", Item.STATUS_NEPROCESAT, "valid@mail.com"));
+        assertTrue(beanFactory.containsSingleton("itemService"));
+        assertTrue(context.getBean(ItemRepository.class).findById(saved.getId()).isPresent());
+    }
+}